@@ -27,10 +27,14 @@ import nl.talsmasoftware.umldoclet.javadoc.dependencies.PackageDependencyCycle;
 import nl.talsmasoftware.umldoclet.logging.Message;
 import nl.talsmasoftware.umldoclet.uml.DependencyDiagram;
 import nl.talsmasoftware.umldoclet.uml.Diagram;
+import nl.talsmasoftware.umldoclet.uml.DiagramRenderer;
 
 import javax.lang.model.element.Element;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
@@ -38,6 +42,7 @@ import java.util.stream.Stream;
 
 import static java.lang.System.lineSeparator;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toCollection;
 import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_COPYRIGHT;
 import static nl.talsmasoftware.umldoclet.logging.Message.DOCLET_VERSION;
 import static nl.talsmasoftware.umldoclet.logging.Message.ERROR_UNANTICIPATED_ERROR_GENERATING_UML;
@@ -109,6 +114,8 @@ public class UMLDoclet extends StandardDoclet {
      * <p>
      * Depending on the {@linkplain nl.talsmasoftware.umldoclet.configuration.Configuration},
      * diagram images or {@code .puml} plantuml source files are generated.
+     * The diagrams are created on the javadoc thread and may be rendered concurrently
+     * by a {@linkplain DiagramRenderer}.
      *
      * @param environment The doclet environment from which essential information can be extracted
      * @return {@code true} if the doclet ran succesfully, {@code false} in case of errors.
@@ -130,8 +137,8 @@ public class UMLDoclet extends StandardDoclet {
 
         try {
 
-            generateDiagrams(environment).forEach(Diagram::render);
-            return new HtmlPostprocessor(config).postProcessHtml();
+            List<File> diagramFiles = new DiagramRenderer(config).render(generateDiagrams(environment));
+            return new HtmlPostprocessor(config).postProcessHtml(diagramFiles);
 
         } catch (RuntimeException unanticipatedException) {
             config.logger().error(ERROR_UNANTICIPATED_ERROR_GENERATING_UML, unanticipatedException);
@@ -159,7 +166,7 @@ public class UMLDoclet extends StandardDoclet {
 
     private DependencyDiagram generatePackageDependencyDiagram(DocletEnvironment docEnv) {
         DependenciesElementScanner scanner = new DependenciesElementScanner(docEnv, config);
-        Set<PackageDependency> packageDependencies = scanner.scan(docEnv.getIncludedElements(), null);
+        Set<PackageDependency> packageDependencies = scanner.scan(docEnv.getIncludedElements(), config.renderThreads());
         detectPackageDependencyCycles(packageDependencies);
         DependencyDiagram dependencyDiagram = new DependencyDiagram(config, scanner.getModuleName(), "package-dependencies.puml");
         packageDependencies.forEach(dep -> dependencyDiagram.addPackageDependency(dep.fromPackage, dep.toPackage));
@@ -167,7 +174,13 @@ public class UMLDoclet extends StandardDoclet {
     }
 
     private Set<PackageDependencyCycle> detectPackageDependencyCycles(Set<PackageDependency> packageDependencies) {
-        Set<PackageDependencyCycle> cycles = PackageDependencyCycle.detectCycles(packageDependencies);
+        // Detect one cycle more than reported, to tell whether the reported cycles are limited.
+        Set<PackageDependencyCycle> cycles = PackageDependencyCycle.detectCycles(
+                packageDependencies, PackageDependencyCycle.DEFAULT_MAX_CYCLES + 1);
+        boolean limited = cycles.size() > PackageDependencyCycle.DEFAULT_MAX_CYCLES;
+        if (limited) {
+            cycles = cycles.stream().limit(PackageDependencyCycle.DEFAULT_MAX_CYCLES).collect(toCollection(LinkedHashSet::new));
+        }
         if (!cycles.isEmpty()) {
             String cyclesString = cycles.stream().map(cycle -> " - " + cycle).collect(joining(lineSeparator(), lineSeparator(), ""));
             if (config.failOnCyclicPackageDependencies()) {
@@ -175,6 +188,9 @@ public class UMLDoclet extends StandardDoclet {
             } else {
                 config.logger().warn(Message.WARNING_PACKAGE_DEPENDENCY_CYCLES, cyclesString);
             }
+            if (limited) {
+                config.logger().info(Message.INFO_PACKAGE_DEPENDENCY_CYCLES_LIMITED, PackageDependencyCycle.DEFAULT_MAX_CYCLES);
+            }
         }
         return cycles;
     }
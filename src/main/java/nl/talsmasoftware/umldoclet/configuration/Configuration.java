@@ -92,6 +92,48 @@ public interface Configuration {
      */
     boolean renderPumlFile();
 
+    /**
+     * The number of threads to render UML diagrams with.
+     * <p>
+     * The UML model is always created by the javadoc thread.
+     * If more than one thread is configured, the created diagrams are rendered concurrently
+     * by a bounded pool of worker threads.
+     * The generated HTML files are postprocessed concurrently with the same number of threads.
+     * The included packages are also scanned concurrently for package dependencies by this many threads.
+     *
+     * @return The number of threads to render diagrams with, {@code 1} to render on the javadoc thread.
+     */
+    int renderThreads();
+
+    /**
+     * The number of separate JVM processes to render UML diagrams with.
+     * <p>
+     * By default, diagrams are rendered by the PlantUML library inside the javadoc JVM.
+     * If one or more processes are configured, diagrams are rendered by a pool of forked JVM processes instead,
+     * so the memory needed to lay out large diagrams is not allocated in the javadoc heap.
+     * Diagrams are handed to the processes by the {@linkplain #renderThreads() render threads}.
+     * <p>
+     * This setting is ignored if a {@linkplain #plantumlServerUrl() PlantUML server} is configured.
+     *
+     * @return The number of processes to render diagrams with, {@code 0} to render in the javadoc JVM.
+     */
+    int renderProcesses();
+
+    /**
+     * Options for the JVM processes that render UML diagrams, for example {@code -Xmx512m}.
+     *
+     * @return The JVM options for the {@linkplain #renderProcesses() render processes}.
+     */
+    List<String> renderProcessOptions();
+
+    /**
+     * The number of diagrams a render process renders before it is replaced by a fresh process,
+     * so memory retained by PlantUML does not accumulate.
+     *
+     * @return The number of diagrams per {@linkplain #renderProcesses() render process}.
+     */
+    int renderProcessDiagrams();
+
     /**
      * Configuration for generated images.
      *
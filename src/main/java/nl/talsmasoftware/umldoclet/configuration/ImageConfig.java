@@ -93,6 +93,17 @@ public interface ImageConfig {
      */
     Optional<String> directory();
 
+    /**
+     * A directory where rendered UML diagram images are cached between javadoc runs, if explicitly specified.
+     * <p>
+     * Diagrams whose PlantUML source is unchanged since an earlier run are taken from this cache
+     * instead of being rendered again.
+     * If not configured (i.e. {@link Optional#empty()}), all diagram images are rendered.
+     *
+     * @return The cache directory for rendered UML diagram images, if explicitly specified.
+     */
+    Optional<String> cacheDirectory();
+
     /**
      * Image format(s) to generate UML diagrams in.
      * <p>
@@ -18,16 +18,18 @@ package nl.talsmasoftware.umldoclet.html;
 import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 
 import java.io.File;
+import java.util.Collection;
 
+import static java.util.Collections.singleton;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
 
 /**
  * Abstraction for a generated class diagram file.
  *
  * <p>
- * The {@link #matches(HtmlFile)} method determines whether
- * a found {@code HTML} file corresponds to this class diagram
- * and if so, a postprocessor should be run for it.
+ * The {@link #htmlFiles()} method determines which
+ * {@code HTML} file corresponds to this class diagram,
+ * so a postprocessor can be run for it.
  *
  * <p>
  * Furthermore, this class 'knows' where (in the HTML) to insert the
@@ -38,28 +40,22 @@ import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
  */
 final class ClassDiagramInserter extends DiagramFile {
 
-    private final String extension;
-    private final String pathToCompare;
+    private final String htmlFile;
 
     ClassDiagramInserter(File basedir, File diagramFile, ImageConfig.Format format, boolean hasImagesDirectory) {
         super(basedir, diagramFile, format);
         final String fileName = diagramFile.getName();
-        int dotIdx = fileName.lastIndexOf('.');
-        this.extension = fileName.substring(dotIdx);
         if (hasImagesDirectory) {
-            this.pathToCompare = fileName.substring(0, dotIdx).replace('.', '/') + extension;
+            this.htmlFile = fileName.substring(0, fileName.lastIndexOf('.')).replace('.', '/') + ".html";
         } else {
-            this.pathToCompare = relativePath(this.basedir, this.diagramFile);
+            String diagramPath = unixPath(relativePath(this.basedir, this.diagramFile));
+            this.htmlFile = diagramPath.substring(0, diagramPath.lastIndexOf('.')) + ".html";
         }
     }
 
-    private String changeHtmlFileNameExtension(Object htmlFileName) {
-        return htmlFileName.toString().replaceFirst("\\.html$", extension);
-    }
-
     @Override
-    boolean matches(HtmlFile html) {
-        return pathToCompare.equals(changeHtmlFileNameExtension(relativePath(basedir, html.path.toFile())));
+    Collection<String> htmlFiles() {
+        return singleton(htmlFile);
     }
 
     @Override
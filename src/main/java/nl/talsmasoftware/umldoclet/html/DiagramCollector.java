@@ -20,34 +20,34 @@ import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 import nl.talsmasoftware.umldoclet.util.FileUtils;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
-import static java.util.Collections.unmodifiableCollection;
+import static java.util.Collections.unmodifiableMap;
 import static nl.talsmasoftware.umldoclet.configuration.ImageConfig.Format.SVG;
 
 /**
- * Collects all generated diagram files from the output directory.
+ * Collects the generated diagram files that should be inserted in the HTML documentation.
+ * <p>
+ * The diagram files are provided by the renderer, so the output directory does not need to be searched for them.
+ * The collected diagrams are indexed by the relative path of the HTML file(s) they belong to,
+ * so each HTML file only needs a single lookup to find its diagrams.
  *
  * @author Sjoerd Talsma
  */
-final class DiagramCollector extends SimpleFileVisitor<Path> {
+final class DiagramCollector {
     private static final Pattern PACKAGE_DIAGRAM_PATTERN = Pattern.compile("package\\.[a-z]+$");
     private static final Pattern PACKAGE_DEPENDENCY_DIAGRAM_PATTERN = Pattern.compile("package-dependencies\\.[a-z]+$");
 
     private final File basedir;
     private final Optional<File> imagesDirectory;
     private final Optional<ImageConfig.Format> imageFormat;
-    private final ThreadLocal<Collection<DiagramFile>> collected = ThreadLocal.withInitial(ArrayList::new);
 
     DiagramCollector(Configuration config) {
         this.basedir = new File(config.destinationDirectory());
@@ -57,27 +57,26 @@ final class DiagramCollector extends SimpleFileVisitor<Path> {
     }
 
     /**
-     * Collects all generated diagram files by walking the specified path.
+     * Collects the diagrams to insert from the rendered diagram files.
+     * <p>
+     * Only diagram files in the first configured image format are inserted in the HTML.
      *
-     * @return The collected diagrams
-     * @throws IOException In case there were I/O errors walking the path
+     * @param diagramFiles The rendered diagram files.
+     * @return The collected diagrams, by relative path of the HTML file they should be inserted in
+     * @see DiagramFile#htmlFiles()
      */
-    Collection<DiagramFile> collectDiagrams() throws IOException {
-        if (!imageFormat.isPresent()) return Collections.emptySet();
-        try {
-            Files.walkFileTree(imagesDirectory.orElse(basedir).toPath(), this);
-            return unmodifiableCollection(collected.get());
-        } finally {
-            collected.remove();
+    Map<String, List<DiagramFile>> collectDiagrams(Collection<File> diagramFiles) {
+        if (!imageFormat.isPresent()) return Collections.emptyMap();
+        final Map<String, List<DiagramFile>> collected = new LinkedHashMap<>();
+        for (File diagramFile : diagramFiles) {
+            if (FileUtils.hasExtension(diagramFile, imageFormat.get().fileExtension)) {
+                final DiagramFile diagram = createDiagramInstance(diagramFile);
+                for (String htmlFile : diagram.htmlFiles()) {
+                    collected.computeIfAbsent(htmlFile, file -> new ArrayList<>(1)).add(diagram);
+                }
+            }
         }
-    }
-
-    @Override
-    public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
-        if (attrs.isRegularFile() && FileUtils.hasExtension(path, imageFormat.orElse(SVG).fileExtension)) {
-            collected.get().add(createDiagramInstance(path));
-        }
-        return super.visitFile(path, attrs);
+        return unmodifiableMap(collected);
     }
 
     private boolean isPackageDiagram(File diagramFile) {
@@ -88,8 +87,8 @@ final class DiagramCollector extends SimpleFileVisitor<Path> {
         return PACKAGE_DEPENDENCY_DIAGRAM_PATTERN.matcher(diagramFile.getName()).find();
     }
 
-    private DiagramFile createDiagramInstance(Path diagramPath) {
-        final File diagramFile = diagramPath.normalize().toFile();
+    private DiagramFile createDiagramInstance(File renderedFile) {
+        final File diagramFile = renderedFile.toPath().normalize().toFile();
         final ImageConfig.Format format = imageFormat.orElse(SVG);
         if (isPackageDiagram(diagramFile)) {
             return new PackageDiagramInserter(basedir, diagramFile, format, imagesDirectory.isPresent());
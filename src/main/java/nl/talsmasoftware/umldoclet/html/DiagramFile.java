@@ -18,6 +18,7 @@ package nl.talsmasoftware.umldoclet.html;
 import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 
 import java.io.File;
+import java.util.Collection;
 
 /**
  * @author Sjoerd Talsma
@@ -34,13 +35,22 @@ abstract class DiagramFile {
     }
 
     /**
-     * Evaluate whether this diagram matches with the specified HTML file.
+     * The HTML files this diagram should be inserted in.
      *
-     * @param htmlFile The html file being visited.
-     * @return Whether the diagram should be inserted in the specified HTML file.
+     * @return The paths of the HTML files relative to the base directory, separated by forward slashes.
+     * @see #unixPath(String)
      */
-    boolean matches(HtmlFile htmlFile) {
-        return false;
+    abstract Collection<String> htmlFiles();
+
+    /**
+     * Replaces the platform-specific separator in a relative path by forward slashes,
+     * so paths of HTML files can be compared to {@link #htmlFiles()}.
+     *
+     * @param relativePath The relative path.
+     * @return The relative path separated by forward slashes.
+     */
+    static String unixPath(String relativePath) {
+        return relativePath.replace(File.separatorChar, '/');
     }
 
     public abstract Postprocessor.Inserter newInserter(String relativePathToDiagram);
@@ -17,13 +17,14 @@ package nl.talsmasoftware.umldoclet.html;
 
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Collection;
-import java.util.List;
 
 import static java.util.Objects.requireNonNull;
 import static nl.talsmasoftware.umldoclet.logging.Message.DEBUG_REPLACING_BY;
@@ -45,21 +46,34 @@ final class HtmlFile {
         this.path = requireNonNull(path, "HTML file is <null>.").normalize();
     }
 
+    /**
+     * Whether the path has an {@code .html} file name. This check does not access the file system.
+     *
+     * @param path The path to check.
+     * @return {@code true} if the path ends with an {@code .html} file name.
+     */
+    static boolean hasHtmlFileName(Path path) {
+        final Path fileName = path == null ? null : path.getFileName();
+        return fileName != null && fileName.toString().endsWith(".html");
+    }
+
     static boolean isHtmlFile(Path path) {
-        final File file = path == null ? null : path.toFile();
-        return file != null && file.isFile() && file.canRead() && file.getName().endsWith(".html");
+        if (!hasHtmlFileName(path)) return false;
+        final File file = path.toFile();
+        return file.isFile() && file.canRead();
     }
 
+    /**
+     * Inserts the diagrams into this HTML file.
+     *
+     * @param diagrams The diagrams belonging to this HTML file.
+     * @return Whether any diagram was inserted.
+     */
     boolean process(Collection<DiagramFile> diagrams) {
-        return diagrams.stream()
-                .filter(diagram -> diagram.matches(this))
-                .map(diagram -> new Postprocessor(this, diagram))
-                .map(this::process)
-                .reduce(Boolean.FALSE, Boolean::logicalOr)
-                || skip();
+        return process(new Postprocessor(this, diagrams)) || skip();
     }
 
-    private boolean skip() {
+    boolean skip() {
         config.logger().debug(DEBUG_SKIPPING_FILE, path);
         return false;
     }
@@ -73,13 +87,20 @@ final class HtmlFile {
         } catch (IOException ioe) {
             throw new IllegalStateException("I/O exception postprocessing " + path, ioe);
         }
-        return false; // should log skip after all diagram types were processed
+        return false;
     }
 
-    public List<String> readLines() throws IOException {
-        return Files.readAllLines(path, config.htmlCharset());
+    BufferedReader newReader() throws IOException {
+        return Files.newBufferedReader(path, config.htmlCharset());
     }
 
+    /**
+     * Creates a new temporary file in the same directory as this HTML file,
+     * so {@linkplain #replaceBy(File) replacing} this file by it is an atomic rename.
+     *
+     * @return The new temporary file.
+     * @throws IOException if the temporary file could not be created.
+     */
     File createNewTempFile() throws IOException {
         final String fileName = path.getFileName().toString();
         final int lastDot = fileName.lastIndexOf('.');
@@ -89,12 +110,16 @@ final class HtmlFile {
             suffix = fileName.substring(lastDot);
         }
         prefix += "---".substring(0, Math.max(1, 3 - prefix.length())); // Make sure the prefix is at least 3 chars.
-        return File.createTempFile(prefix, suffix);
+        return File.createTempFile(prefix, suffix, path.toAbsolutePath().getParent().toFile());
     }
 
     public void replaceBy(File tempFile) throws IOException {
         if (tempFile != null && tempFile.isFile()) {
-            Files.move(tempFile.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(tempFile.toPath(), path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException differentFileStore) {
+                Files.move(tempFile.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
+            }
             config.logger().debug(DEBUG_REPLACING_BY, path, tempFile);
         }
     }
@@ -16,16 +16,25 @@
 package nl.talsmasoftware.umldoclet.html;
 
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.util.ConcurrencyUtils;
 
 import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Objects.requireNonNull;
+import static nl.talsmasoftware.umldoclet.logging.Message.DEBUG_POSTPROCESSED_HTML_FILES;
 
 /**
  * Postprocesses the HTML output from the standard doclet to add UML diagrams.
+ * <p>
+ * Only the HTML files belonging to the rendered diagrams are visited,
+ * the destination directory is not searched.
+ * If more than one {@linkplain Configuration#renderThreads() thread} is configured,
+ * the HTML files are postprocessed concurrently by a bounded pool of worker threads.
  *
  * @author Sjoerd Talsma
  */
@@ -36,25 +45,32 @@ public class HtmlPostprocessor {
         this.config = requireNonNull(config, "Configuration is <null>.");
     }
 
-    public boolean postProcessHtml() {
-        try {
-            final File destinationDir = new File(config.destinationDirectory());
-            if (!destinationDir.isDirectory() || !destinationDir.canRead()) {
-                throw new IllegalStateException("Cannot read from configured destination directory \"" + destinationDir + "\"!");
-            }
-            final Collection<DiagramFile> diagrams = new DiagramCollector(config).collectDiagrams();
-
-            long count = Files.walk(destinationDir.toPath())
-                    .filter(HtmlFile::isHtmlFile)
-                    .map(path -> new HtmlFile(config, path))
-                    .map(htmlFile -> htmlFile.process(diagrams))
-                    .filter(Boolean::booleanValue).count();
-            // TODO debug the number of postprocessed HTML files?
-            return true;
-        } catch (IOException ioe) {
-            throw new IllegalStateException("I/O exception postprocessing HTML files in "
-                    + config.destinationDirectory() + ": " + ioe.getMessage(), ioe);
+    /**
+     * Inserts the rendered diagrams into the HTML files they belong to.
+     *
+     * @param diagramFiles The rendered diagram files.
+     * @return {@code true} if postprocessing completed.
+     */
+    public boolean postProcessHtml(Collection<File> diagramFiles) {
+        final File destinationDir = new File(config.destinationDirectory());
+        if (!destinationDir.isDirectory() || !destinationDir.canRead()) {
+            throw new IllegalStateException("Cannot read from configured destination directory \"" + destinationDir + "\"!");
         }
+        final Map<String, List<DiagramFile>> diagrams = new DiagramCollector(config).collectDiagrams(diagramFiles);
+
+        final Path basePath = destinationDir.toPath();
+        final AtomicInteger processed = new AtomicInteger(0), skipped = new AtomicInteger(0);
+        ConcurrencyUtils.forEach(diagrams.entrySet().stream(), config.renderThreads(), "umldoclet-html", entry -> {
+            final Path path = basePath.resolve(entry.getKey());
+            final HtmlFile htmlFile = new HtmlFile(config, path);
+            if (HtmlFile.isHtmlFile(path) ? htmlFile.process(entry.getValue()) : htmlFile.skip()) {
+                processed.incrementAndGet();
+            } else {
+                skipped.incrementAndGet();
+            }
+        });
+        config.logger().debug(DEBUG_POSTPROCESSED_HTML_FILES, processed.get(), skipped.get());
+        return true;
     }
 
 }
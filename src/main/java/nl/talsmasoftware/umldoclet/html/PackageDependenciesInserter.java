@@ -18,26 +18,30 @@ package nl.talsmasoftware.umldoclet.html;
 import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 
 import java.io.File;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
 
 final class PackageDependenciesInserter extends DiagramFile {
-    private final Path index;
-    private final Path overviewSummary;
-    private final Path moduleSummary;
+    private final List<String> htmlFiles;
 
     PackageDependenciesInserter(File basedir, File diagramFile, ImageConfig.Format format) {
         super(basedir, diagramFile, format);
-        this.index = new File(basedir, "index.html").toPath();
-        this.overviewSummary = new File(basedir, "overview-summary.html").toPath();
-        this.moduleSummary = "package-dependencies.svg".equals(diagramFile.getName())
-                ? new File(diagramFile.getParent(), "module-summary.html").toPath()
-                : null;
+        final List<String> htmlFiles = new ArrayList<>(3);
+        htmlFiles.add("index.html");
+        htmlFiles.add("overview-summary.html");
+        if ("package-dependencies.svg".equals(diagramFile.getName())) {
+            htmlFiles.add(unixPath(relativePath(basedir, new File(diagramFile.getParent(), "module-summary.html"))));
+        }
+        this.htmlFiles = unmodifiableList(htmlFiles);
     }
 
     @Override
-    boolean matches(HtmlFile htmlFile) {
-        final Path path = htmlFile.path;
-        return index.equals(path) || overviewSummary.equals(path) || moduleSummary.equals(path);
+    Collection<String> htmlFiles() {
+        return htmlFiles;
     }
 
     @Override
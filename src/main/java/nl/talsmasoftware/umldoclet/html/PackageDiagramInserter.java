@@ -18,35 +18,32 @@ package nl.talsmasoftware.umldoclet.html;
 import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 
 import java.io.File;
+import java.util.Collection;
 
+import static java.util.Collections.singleton;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
+import static nl.talsmasoftware.umldoclet.util.FileUtils.withoutExtension;
 
 /**
  * @author Sjoerd Talsma
  */
 final class PackageDiagramInserter extends DiagramFile {
 
-    private final String extension, pathToCompare;
+    private final String htmlFile;
 
     PackageDiagramInserter(File basedir, File diagramFile, ImageConfig.Format format, boolean hasImagesDirectory) {
         super(basedir, diagramFile, format);
         final String fileName = diagramFile.getName();
-        int dotIdx = fileName.lastIndexOf('.');
-        this.extension = fileName.substring(dotIdx);
-        if (hasImagesDirectory) {
-            this.pathToCompare = fileName.substring(0, dotIdx).replace('.', '/') + extension;
-        } else {
-            this.pathToCompare = relativePath(this.basedir, this.diagramFile);
-        }
-    }
-
-    private String changeHtmlFileNameToDiagram(String htmlFileName) {
-        return htmlFileName.replaceFirst("package-summary.html$", "package" + extension);
+        String diagramPath = hasImagesDirectory
+                ? fileName.substring(0, fileName.lastIndexOf('.')).replace('.', '/')
+                : withoutExtension(unixPath(relativePath(this.basedir, this.diagramFile)));
+        // Replace the trailing 'package' of the diagram by the 'package-summary.html' page.
+        this.htmlFile = diagramPath.substring(0, diagramPath.length() - "package".length()) + "package-summary.html";
     }
 
     @Override
-    boolean matches(HtmlFile html) {
-        return pathToCompare.equals(changeHtmlFileNameToDiagram(relativePath(basedir, html.path.toFile())));
+    Collection<String> htmlFiles() {
+        return singleton(htmlFile);
     }
 
     @Override
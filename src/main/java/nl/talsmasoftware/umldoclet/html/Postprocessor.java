@@ -17,59 +17,111 @@ package nl.talsmasoftware.umldoclet.html;
 
 import nl.talsmasoftware.umldoclet.util.FileUtils;
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 
 import static nl.talsmasoftware.umldoclet.util.FileUtils.fileNameOf;
 
+/**
+ * Inserts all diagrams belonging to a single HTML file in one streaming pass.
+ *
+ * <p>
+ * The HTML is read line by line and each line is passed through the {@link Inserter inserters} of all diagrams,
+ * writing the result to a temporary file next to the HTML file.
+ * Only if any diagram was inserted, the temporary file atomically replaces the HTML file.
+ *
+ * <p>
+ * A diagram is not inserted if the HTML already contains it.
+ * Because this is only known after reading the whole file,
+ * the pass is repeated without such diagrams in that (exceptional) case.
+ *
+ * @author Sjoerd Talsma
+ */
 final class Postprocessor implements Callable<Boolean> {
 
     private final HtmlFile htmlFile;
-    private final DiagramFile umlDiagram;
-    private final String relativePath;
-    private final String diagramFileName;
+    private final List<Insertion> insertions;
 
-    Postprocessor(HtmlFile htmlFile, DiagramFile umlDiagram) {
+    Postprocessor(HtmlFile htmlFile, Collection<DiagramFile> umlDiagrams) {
         this.htmlFile = htmlFile;
-        this.umlDiagram = umlDiagram;
-        this.relativePath = FileUtils.relativePath(htmlFile.path.toFile(), umlDiagram.diagramFile);
-        this.diagramFileName = fileNameOf(relativePath);
+        this.insertions = new ArrayList<>(umlDiagrams.size());
+        for (DiagramFile umlDiagram : umlDiagrams) insertions.add(new Insertion(htmlFile, umlDiagram));
     }
 
     @Override
     public Boolean call() throws IOException {
         synchronized (htmlFile) {
-            File tempFile = htmlFile.createNewTempFile();
-            List<String> html = htmlFile.readLines();
-            boolean alreadyContainsDiagram = false;
-            final Inserter inserter = umlDiagram.newInserter(relativePath);
-            try (Writer writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(tempFile)), htmlFile.config.htmlCharset())) {
-                boolean written = false;
-                for (String line : html) {
-                    if (line.contains(diagramFileName)) {
-                        alreadyContainsDiagram = true;
-                        break;
+            final List<Insertion> remaining = new ArrayList<>(insertions);
+            while (!remaining.isEmpty()) {
+                File tempFile = htmlFile.createNewTempFile();
+                boolean replaced = false;
+                try {
+                    final Insertion alreadyContained = rewrite(remaining, tempFile);
+                    if (alreadyContained != null) {
+                        remaining.remove(alreadyContained);
+                    } else if (remaining.stream().anyMatch(insertion -> insertion.inserter.inserted)) {
+                        htmlFile.replaceBy(tempFile);
+                        replaced = true;
+                        return true;
+                    } else {
+                        return false;
+                    }
+                } finally {
+                    if (!replaced && !tempFile.delete()) {
+                        throw new IllegalStateException("Could not delete " + tempFile + " after postprocessing!");
                     }
-                    if (written) writer.write(System.lineSeparator());
-                    writer.write(inserter.process(line));
-                    written = true;
                 }
             }
+            return false;
+        }
+    }
 
-            boolean result = false;
-            if (!alreadyContainsDiagram && inserter.inserted) {
-                htmlFile.replaceBy(tempFile);
-                result = true;
-            } else if (!tempFile.delete()) {
-                throw new IllegalStateException("Could not delete " + tempFile + " after postprocessing!");
+    /**
+     * Rewrites the HTML file into the temporary file, passing each line through all inserters.
+     *
+     * @param insertions The diagram insertions to apply.
+     * @param tempFile   The temporary file to write the result to.
+     * @return The first insertion whose diagram was already contained by the HTML,
+     * or {@code null} if the rewrite was completed.
+     * @throws IOException if the HTML file could not be read or the temporary file could not be written.
+     */
+    private Insertion rewrite(List<Insertion> insertions, File tempFile) throws IOException {
+        for (Insertion insertion : insertions) insertion.inserter = insertion.umlDiagram.newInserter(insertion.relativePath);
+        try (BufferedReader reader = htmlFile.newReader();
+             Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tempFile.toPath()), htmlFile.config.htmlCharset()))) {
+            boolean written = false;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                for (Insertion insertion : insertions) {
+                    if (line.contains(insertion.diagramFileName)) return insertion;
+                    line = insertion.inserter.process(line);
+                }
+                if (written) writer.write(System.lineSeparator());
+                writer.write(line);
+                written = true;
             }
-            return result;
+        }
+        return null;
+    }
+
+    private static final class Insertion {
+        private final DiagramFile umlDiagram;
+        private final String relativePath;
+        private final String diagramFileName;
+        private Inserter inserter;
+
+        private Insertion(HtmlFile htmlFile, DiagramFile umlDiagram) {
+            this.umlDiagram = umlDiagram;
+            this.relativePath = FileUtils.relativePath(htmlFile.path.toFile(), umlDiagram.diagramFile);
+            this.diagramFileName = fileNameOf(relativePath);
         }
     }
 
@@ -26,15 +26,18 @@ import nl.talsmasoftware.umldoclet.configuration.Visibility;
 import nl.talsmasoftware.umldoclet.logging.Logger;
 import nl.talsmasoftware.umldoclet.logging.Message;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
+import nl.talsmasoftware.umldoclet.uml.plantuml.ProcessPlantumlGenerator;
 
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -75,6 +78,34 @@ public class DocletConfig implements Configuration {
      */
     boolean renderPumlFile = false;
 
+    /**
+     * The number of threads to render UML diagrams and scan package dependencies with.
+     * <p>
+     * Set by option {@code --uml-threads}, default is {@code 1} meaning diagrams are rendered by the javadoc thread.
+     */
+    int renderThreads = 1;
+
+    /**
+     * The number of JVM processes to render UML diagrams with.
+     * <p>
+     * Set by option {@code --uml-render-processes}, default is {@code 0} meaning diagrams are rendered in the javadoc JVM.
+     */
+    int renderProcesses = 0;
+
+    /**
+     * JVM options for the processes rendering UML diagrams.
+     * <p>
+     * Added by option {@code --uml-render-process-option}, empty by default.
+     */
+    List<String> renderProcessOptions = new ArrayList<>();
+
+    /**
+     * The number of diagrams each render process renders before it is replaced by a fresh process.
+     * <p>
+     * Set by option {@code --uml-render-process-diagrams}, default is {@code 100}.
+     */
+    int renderProcessDiagrams = ProcessPlantumlGenerator.DEFAULT_DIAGRAMS_PER_PROCESS;
+
     /**
      * Whether the doclet should run more quite (errors must still be displayed).
      * <p>
@@ -122,8 +153,20 @@ public class DocletConfig implements Configuration {
 
     boolean failOnCyclicPackageDependencies = false;
 
+    /**
+     * The external links, added by the {@code -link} and {@code -linkoffline} options.
+     * <p>
+     * External links must only be added while parsing the options,
+     * links added after the first external type was resolved are not used.
+     */
     List<ExternalLink> externalLinks = new ArrayList<>();
 
+    /**
+     * The documentation URI per externally documented package, merged from all external links.
+     */
+    private volatile Map<String, URI> externalPackageUris;
+    private final Object externalPackageUrisLock = new Object();
+
     List<String> customPlantumlDirectives = new ArrayList<>();
 
     private Indentation indentation = Indentation.DEFAULT;
@@ -171,6 +214,26 @@ public class DocletConfig implements Configuration {
         return renderPumlFile || (!quiet && verbose);
     }
 
+    @Override
+    public int renderThreads() {
+        return renderThreads;
+    }
+
+    @Override
+    public int renderProcesses() {
+        return renderProcesses;
+    }
+
+    @Override
+    public List<String> renderProcessOptions() {
+        return renderProcessOptions;
+    }
+
+    @Override
+    public int renderProcessDiagrams() {
+        return renderProcessDiagrams;
+    }
+
     @Override
     public ImageConfig images() {
         return images;
@@ -203,10 +266,32 @@ public class DocletConfig implements Configuration {
 
     @Override
     public Optional<URI> resolveExternalLinkToType(String packageName, String type) {
-        return externalLinks.stream()
-                .map(link -> link.resolveType(packageName, type))
-                .filter(Optional::isPresent).map(Optional::get)
-                .findFirst();
+        return Optional.ofNullable(externalPackageUris().get(packageName))
+                .map(packageUri -> ExternalLink.typeUri(packageUri, type));
+    }
+
+    /**
+     * Merges the packages of all external links into a single index, the first link documenting a package wins.
+     * <p>
+     * The index is created once, when the first external type is resolved after the options were parsed.
+     * From then on it is frozen: it is immutable,
+     * so diagrams rendered by multiple threads can resolve external links without locking.
+     *
+     * @return The documentation URI per externally documented package.
+     */
+    private Map<String, URI> externalPackageUris() {
+        if (externalPackageUris == null) {
+            synchronized (externalPackageUrisLock) {
+                if (externalPackageUris == null) {
+                    final Map<String, URI> packageUris = new HashMap<>();
+                    for (ExternalLink externalLink : externalLinks) {
+                        externalLink.packageUris().forEach(packageUris::putIfAbsent);
+                    }
+                    externalPackageUris = packageUris;
+                }
+            }
+        }
+        return externalPackageUris;
     }
 
     @Override
@@ -250,6 +335,7 @@ public class DocletConfig implements Configuration {
 
     final class ImageCfg implements ImageConfig {
         String directory = null;
+        String cacheDirectory = null;
         Collection<Format> formats = null;
 
         /**
@@ -263,6 +349,16 @@ public class DocletConfig implements Configuration {
             return Optional.ofNullable(directory);
         }
 
+        /**
+         * Directory where rendered UML images are cached between javadoc runs.
+         * <p>
+         * Set by doclet option {@code -umlCacheDir}, default is {@code empty} meaning no images are cached.
+         */
+        @Override
+        public Optional<String> cacheDirectory() {
+            return Optional.ofNullable(cacheDirectory);
+        }
+
         void addImageFormat(String imageFormat) {
             if (imageFormat != null) {
                 if (formats == null) formats = new LinkedHashSet<>();
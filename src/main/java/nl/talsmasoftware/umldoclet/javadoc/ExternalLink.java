@@ -23,13 +23,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.function.Supplier;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
@@ -55,8 +52,7 @@ final class ExternalLink {
     private final Configuration config;
     private final URI docUri;
     private final URI baseUri;
-    private Map<String, Set<String>> modules;
-    private final Map<String, URI> packageUriCache = new HashMap<>();
+    private volatile Map<String, URI> packageUris;
 
     ExternalLink(Configuration config, String apidoc, String packageList) {
         this.config = requireNonNull(config, "Configuration is <null>.");
@@ -65,29 +61,50 @@ final class ExternalLink {
         this.baseUri = createUri(packageList);
     }
 
-    private Map<String, Set<String>> modules() {
-        if (modules == null) {
+    /**
+     * The documentation URIs of all packages documented by this external link.
+     * <p>
+     * The element list (or package list) is read once, after which the URI of each package is determined.
+     * The returned map is immutable, so it can be read by multiple threads without locking.
+     *
+     * @return The URI per documented package name, in the order of the element list.
+     */
+    Map<String, URI> packageUris() {
+        if (packageUris == null) {
             synchronized (this) {
-                Map<String, Set<String>> moduleMap = tryReadModules();
-                this.modules = moduleMap.isEmpty() ? singletonMap("", tryReadPackages()) : moduleMap;
+                if (packageUris == null) {
+                    Map<String, Set<String>> modules = tryReadModules();
+                    if (modules.isEmpty()) modules = singletonMap("", tryReadPackages());
+                    final Map<String, URI> uris = new LinkedHashMap<>();
+                    URI absoluteDocUri = null;
+                    for (Map.Entry<String, Set<String>> module : modules.entrySet()) {
+                        for (String packagename : module.getValue()) {
+                            if (absoluteDocUri == null) absoluteDocUri = makeAbsolute(docUri);
+                            uris.putIfAbsent(packagename, findPackageUri(absoluteDocUri, module.getKey(), packagename));
+                        }
+                    }
+                    this.packageUris = uris.isEmpty() ? emptyMap() : unmodifiableMap(uris);
+                }
             }
         }
-        return modules;
+        return packageUris;
     }
 
-    Optional<URI> resolveType(String packagename, String typeName) {
-        return modules().entrySet().stream()
-                .filter(entry -> entry.getValue().contains(packagename))
-                .findFirst()
-                .map(entry -> cached(packagename, () -> findPackageUri(entry.getKey(), packagename)))
-                .map(uri -> addPathComponent(uri, typeName + ".html"))
-                .map(uri -> addHttpParam(uri, "is-external", "true"));
+    /**
+     * The URI of an external type's documentation.
+     *
+     * @param packageUri The documentation URI of the package containing the type.
+     * @param typeName   The name of the type within the package.
+     * @return The documentation URI of the type.
+     */
+    static URI typeUri(URI packageUri, String typeName) {
+        return addHttpParam(addPathComponent(packageUri, typeName + ".html"), "is-external", "true");
     }
 
-    private URI findPackageUri(String modulename, String packagename) {
+    private static URI findPackageUri(URI absoluteDocUri, String modulename, String packagename) {
         String packagePath = packagename.replace('.', '/');
         if (!modulename.isEmpty()) packagePath = modulename + '/' + packagePath;
-        return addPathComponent(makeAbsolute(docUri), packagePath);
+        return addPathComponent(absoluteDocUri, packagePath);
     }
 
     private Map<String, Set<String>> tryReadModules() {
@@ -133,13 +150,6 @@ final class ExternalLink {
         return packages.isEmpty() ? emptySet() : unmodifiableSet(packages);
     }
 
-    private URI cached(String packagename, Supplier<URI> uri) {
-        synchronized (packageUriCache) {
-            if (!packageUriCache.containsKey(packagename)) packageUriCache.put(packagename, uri.get());
-        }
-        return packageUriCache.get(packagename);
-    }
-
     private URI makeAbsolute(URI uri) {
         if (uri != null && !uri.isAbsolute()) {
             uri = new File(config.destinationDirectory(), uri.toASCIIString()).toURI().normalize();
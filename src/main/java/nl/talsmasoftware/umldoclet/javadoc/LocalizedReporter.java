@@ -30,6 +30,8 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * Doclet reporter using a specific {@link Locale} to reporte to a delegate {@link Reporter}.
+ * <p>
+ * Printing to the delegate is synchronized, since diagrams may be rendered (and logged) by multiple threads.
  *
  * @author Sjoerd Talsma
  */
@@ -107,17 +109,17 @@ final class LocalizedReporter implements Reporter, Logger {
         if (mustPrint(kind)) doPrint(kind, elem, msg);
     }
 
-    private void doPrint(Diagnostic.Kind kind, String msg) {
+    private synchronized void doPrint(Diagnostic.Kind kind, String msg) {
         if (delegate == null) System.out.println(msg);
         else delegate.print(kind, msg);
     }
 
-    private void doPrint(Diagnostic.Kind kind, DocTreePath path, String msg) {
+    private synchronized void doPrint(Diagnostic.Kind kind, DocTreePath path, String msg) {
         if (delegate == null) System.out.println(msg);
         else delegate.print(kind, path, msg);
     }
 
-    private void doPrint(Diagnostic.Kind kind, Element elem, String msg) {
+    private synchronized void doPrint(Diagnostic.Kind kind, Element elem, String msg) {
         if (delegate == null) System.out.println(msg);
         else delegate.print(kind, elem, msg);
     }
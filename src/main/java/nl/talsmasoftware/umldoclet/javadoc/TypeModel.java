@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import nl.talsmasoftware.umldoclet.configuration.Visibility;
+import nl.talsmasoftware.umldoclet.uml.Field;
+import nl.talsmasoftware.umldoclet.uml.Method;
+import nl.talsmasoftware.umldoclet.uml.Namespace;
+import nl.talsmasoftware.umldoclet.uml.Parameters;
+import nl.talsmasoftware.umldoclet.uml.Type;
+import nl.talsmasoftware.umldoclet.uml.TypeMember;
+import nl.talsmasoftware.umldoclet.uml.TypeName;
+
+import javax.lang.model.element.TypeElement;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Immutable model of a type, extracted once from the javadoc element model.
+ * <p>
+ * The model contains everything the class and package diagrams need from a type:
+ * its name, classification, members, supertypes, enclosing and nested types
+ * and the 'uses' references from its fields and properties.
+ * All diagrams containing the type create their own (mutable) {@linkplain Type} from this model,
+ * so the javadoc element model only needs to be traversed once per type.
+ *
+ * @author Sjoerd Talsma
+ */
+final class TypeModel {
+
+    final TypeElement element;
+    final TypeName name;
+    final Type.Classification classification;
+    final String packageName;
+    final String moduleName;
+    final boolean isDeprecated;
+    final List<Member> members;
+    final Supertype superclass;
+    final List<Supertype> interfaces;
+    final TypeName enclosingTypeName;
+    final TypeElement enclosingType;
+    final List<TypeElement> nestedTypes;
+    final List<UsesReference> usesReferences;
+
+    TypeModel(TypeElement element, TypeName name, Type.Classification classification,
+              String packageName, String moduleName, boolean isDeprecated, List<Member> members,
+              Supertype superclass, List<Supertype> interfaces, TypeName enclosingTypeName, TypeElement enclosingType,
+              List<TypeElement> nestedTypes, List<UsesReference> usesReferences) {
+        this.element = requireNonNull(element, "Type element is <null>.");
+        this.name = requireNonNull(name, "Type name is <null>.");
+        this.classification = requireNonNull(classification, "Type classification is <null>.");
+        this.packageName = packageName;
+        this.moduleName = moduleName;
+        this.isDeprecated = isDeprecated;
+        this.members = unmodifiable(members);
+        this.superclass = superclass;
+        this.interfaces = unmodifiable(interfaces);
+        this.enclosingTypeName = enclosingTypeName;
+        this.enclosingType = enclosingType;
+        this.nestedTypes = unmodifiable(nestedTypes);
+        this.usesReferences = unmodifiable(usesReferences);
+    }
+
+    /**
+     * Creates an 'empty' type (i.e. without any fields, constructors or methods).
+     *
+     * @param containingPackage The containing package of the type (optional, a new namespace is created if null).
+     * @return The empty Type object.
+     */
+    Type createType(Namespace containingPackage) {
+        if (containingPackage == null) containingPackage = new Namespace(null, packageName, moduleName);
+        return new Type(containingPackage, classification, name);
+    }
+
+    /**
+     * Creates a type containing all its members.
+     *
+     * @param containingPackage The containing package of the type (optional, a new namespace is created if null).
+     * @return The populated Type object.
+     */
+    Type createPopulatedType(Namespace containingPackage) {
+        return createPopulatedType(containingPackage, member -> true);
+    }
+
+    /**
+     * Creates a type containing only the selected members.
+     * <p>
+     * Diagrams that show only some members of a type (e.g. the abstract methods of a supertype)
+     * should select them here, instead of removing the other members after creating them.
+     *
+     * @param containingPackage The containing package of the type (optional, a new namespace is created if null).
+     * @param memberFilter      The filter selecting which members to create.
+     * @return The populated Type object.
+     */
+    Type createPopulatedType(Namespace containingPackage, Predicate<? super Member> memberFilter) {
+        final Type type = createType(containingPackage);
+        for (Member member : members) {
+            if (memberFilter.test(member)) type.addChild(member.createMember(type));
+        }
+        return isDeprecated ? type.deprecated() : type;
+    }
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list == null || list.isEmpty() ? emptyList() : unmodifiableList(list);
+    }
+
+    /**
+     * A supertype of the modelled type, with the type element if it is available.
+     */
+    static final class Supertype {
+        final TypeName name;
+        final TypeElement element;
+
+        Supertype(TypeName name, TypeElement element) {
+            this.name = requireNonNull(name, "Supertype name is <null>.");
+            this.element = element;
+        }
+    }
+
+    /**
+     * A field, constructor or method of the modelled type.
+     * <p>
+     * Constructors have no type, fields have no parameters.
+     */
+    static final class Member {
+        private final boolean isMethod;
+        private final boolean isConstructor;
+        private final String name;
+        private final TypeName type;
+        private final Visibility visibility;
+        private final boolean isStatic;
+        private final boolean isAbstract;
+        private final boolean isDeprecated;
+        private final boolean isVarargs;
+        private final List<String> parameterNames;
+        private final List<TypeName> parameterTypes;
+
+        private Member(boolean isMethod, boolean isConstructor, String name, TypeName type, Visibility visibility,
+                       boolean isStatic, boolean isAbstract, boolean isDeprecated,
+                       boolean isVarargs, List<String> parameterNames, List<TypeName> parameterTypes) {
+            this.isMethod = isMethod;
+            this.isConstructor = isConstructor;
+            this.name = name;
+            this.type = type;
+            this.visibility = visibility;
+            this.isStatic = isStatic;
+            this.isAbstract = isAbstract;
+            this.isDeprecated = isDeprecated;
+            this.isVarargs = isVarargs;
+            this.parameterNames = unmodifiable(parameterNames);
+            this.parameterTypes = unmodifiable(parameterTypes);
+        }
+
+        /**
+         * @return Whether this member is a field (or enum constant).
+         */
+        boolean isField() {
+            return !isMethod;
+        }
+
+        /**
+         * @return Whether this member is an abstract method.
+         */
+        boolean isAbstractMethod() {
+            return isMethod && isAbstract;
+        }
+
+        static Member field(String name, TypeName type, Visibility visibility, boolean isStatic, boolean isDeprecated) {
+            return new Member(false, false, name, type, visibility, isStatic, false, isDeprecated, false, null, null);
+        }
+
+        static Member constructor(Visibility visibility, boolean isStatic, boolean isAbstract, boolean isDeprecated,
+                                  boolean isVarargs, List<String> parameterNames, List<TypeName> parameterTypes) {
+            return new Member(true, true, null, null, visibility, isStatic, isAbstract, isDeprecated,
+                    isVarargs, parameterNames, parameterTypes);
+        }
+
+        static Member method(String name, TypeName returnType, Visibility visibility,
+                             boolean isStatic, boolean isAbstract, boolean isDeprecated,
+                             boolean isVarargs, List<String> parameterNames, List<TypeName> parameterTypes) {
+            return new Member(true, false, name, returnType, visibility, isStatic, isAbstract, isDeprecated,
+                    isVarargs, parameterNames, parameterTypes);
+        }
+
+        private TypeMember createMember(Type containingType) {
+            final TypeMember member;
+            if (isMethod) {
+                Method method = new Method(containingType, isConstructor ? containingType.getName().simple : name, type);
+                method.isAbstract = isAbstract;
+                method.addChild(createParameters());
+                member = method;
+            } else {
+                member = new Field(containingType, name, type);
+            }
+            member.setVisibility(visibility);
+            member.isStatic = isStatic;
+            member.isDeprecated = isDeprecated;
+            return member;
+        }
+
+        private Parameters createParameters() {
+            Parameters parameters = new Parameters(null);
+            if (!parameterNames.isEmpty()) parameters.varargs(isVarargs);
+            for (int i = 0; i < parameterNames.size(); i++) {
+                parameters.add(parameterNames.get(i), parameterTypes.get(i));
+            }
+            return parameters;
+        }
+    }
+
+    /**
+     * A visible field or JavaBean property of the modelled type,
+     * that is shown as a 'uses' reference if its type is in the same package diagram.
+     */
+    static final class UsesReference {
+        final String name;
+        final TypeNameWithCardinality type;
+        final boolean isMethod;
+        final String memberName;
+
+        UsesReference(String name, TypeNameWithCardinality type, boolean isMethod, String memberName) {
+            this.name = requireNonNull(name, "Reference name is <null>.");
+            this.type = requireNonNull(type, "Reference type is <null>.");
+            this.isMethod = isMethod;
+            this.memberName = requireNonNull(memberName, "Member name is <null>.");
+        }
+    }
+}
@@ -32,8 +32,11 @@ import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.SimpleTypeVisitor9;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * The UML type name implemented as {@link TypeVisitor}.
@@ -49,6 +52,29 @@ final class TypeNameVisitor extends SimpleTypeVisitor9<TypeName, Void> {
     private TypeNameVisitor() {
     }
 
+    /**
+     * Returns a function that visits types with this visitor, remembering the type names of declared types.
+     * <p>
+     * The same types (e.g. {@code String} or {@code Foo}) are used by many fields, parameters and methods.
+     * Declared types without type arguments are remembered by their element.
+     * Type names are immutable, so the same type name can be returned for all these types.
+     * Other types (e.g. {@code List<Foo>} or {@code T}) are visited every time,
+     * as their type mirrors are seldom shared and remembering them would retain them for the whole run.
+     * <p>
+     * The returned function is not thread-safe and should only be used for a single doclet run.
+     *
+     * @return A function returning the (remembered) type name of a type.
+     */
+    static Function<TypeMirror, TypeName> cachingFunction() {
+        final Map<Element, TypeName> declaredTypeNames = new HashMap<>();
+        return type -> {
+            if (TypeKind.DECLARED.equals(type.getKind()) && ((DeclaredType) type).getTypeArguments().isEmpty()) {
+                return declaredTypeNames.computeIfAbsent(((DeclaredType) type).asElement(), element -> INSTANCE.visit(type));
+            }
+            return INSTANCE.visit(type);
+        };
+    }
+
     private static ThreadLocal<Set<TypeMirror>> VISITED = ThreadLocal.withInitial(
             () -> Collections.newSetFromMap(new IdentityHashMap<>()));
 
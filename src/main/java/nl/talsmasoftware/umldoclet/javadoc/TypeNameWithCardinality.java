@@ -17,12 +17,16 @@ package nl.talsmasoftware.umldoclet.javadoc;
 
 import nl.talsmasoftware.umldoclet.uml.TypeName;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
@@ -58,31 +62,45 @@ final class TypeNameWithCardinality {
      * @return The function to return TypeName with cardinality for use in same-package references.
      */
     static Function<TypeMirror, TypeNameWithCardinality> function(final Types typeUtils) {
+        return function(typeUtils, TypeNameVisitor.INSTANCE::visit);
+    }
+
+    /**
+     * Returns a function that determines type names with cardinality using the specified type name function.
+     * <p>
+     * Whether a declared type has a supertype with a cardinality is remembered per type element,
+     * so the supertypes only need to be searched for the type argument
+     * of types that actually are {@code Iterable}, {@code Stream} or {@code Optional}.
+     * The returned function is not thread-safe and should only be used for a single doclet run.
+     *
+     * @param typeUtils The type utils to use for supertype introspection (required).
+     * @param typeNames The function to obtain type names with (required).
+     * @return The function to return TypeName with cardinality for use in same-package references.
+     * @see #function(Types)
+     */
+    static Function<TypeMirror, TypeNameWithCardinality> function(final Types typeUtils, final Function<TypeMirror, TypeName> typeNames) {
         requireNonNull(typeUtils, "Type utils are <null>.");
+        requireNonNull(typeNames, "Type names function is <null>.");
+        final Map<Element, Boolean> elementsWithCardinality = new HashMap<>();
         return type -> {
             if (type instanceof ArrayType) {
-                TypeName componentName = TypeNameVisitor.INSTANCE.visit(((ArrayType) type).getComponentType());
+                TypeName componentName = typeNames.apply(((ArrayType) type).getComponentType());
                 return new TypeNameWithCardinality(componentName, "*");
-            } else if (type instanceof DeclaredType) {
+            } else if (type instanceof DeclaredType && hasCardinality(type, typeUtils, typeNames, elementsWithCardinality)) {
                 Queue<TypeMirror> superTypes = new ArrayDeque<>(singleton(type));
                 Set<String> checkedTypes = new HashSet<>();
                 while (!superTypes.isEmpty()) {
                     TypeMirror superType = superTypes.poll();
-                    String qName = TypeNameVisitor.INSTANCE.visit(superType).qualified;
+                    String qName = typeNames.apply(superType).qualified;
                     if (checkedTypes.add(qName)) { // Don't reiterate
-                        String cardinality = null;
-                        if ("java.util.Optional".equals(qName) || "com.google.common.base.Optional".equals(qName)) {
-                            cardinality = "0..1";
-                        } else if ("java.lang.Iterable".equals(qName) || "java.util.stream.Stream".equals(qName)) {
-                            cardinality = "*";
-                        }
+                        String cardinality = cardinalityOf(qName);
 
                         // Assumption: the 'iterable' and 'optional' types are DeclaredTypes with a single TypeArgument.
                         Optional<TypeName> typeArgument = Optional.ofNullable(cardinality)
                                 .map(c -> superType instanceof DeclaredType ? (DeclaredType) superType : null)
                                 .map(DeclaredType::getTypeArguments)
                                 .map(args -> args.size() == 1 ? args.get(0) : null)
-                                .map(TypeNameVisitor.INSTANCE::visit);
+                                .map(typeNames);
                         if (typeArgument.isPresent()) {
                             return new TypeNameWithCardinality(typeArgument.get(), cardinality);
                         }
@@ -92,7 +110,41 @@ final class TypeNameWithCardinality {
                 }
             }
 
-            return new TypeNameWithCardinality(TypeNameVisitor.INSTANCE.visit(type), null);
+            return new TypeNameWithCardinality(typeNames.apply(type), null);
         };
     }
+
+    private static String cardinalityOf(String qualifiedName) {
+        if ("java.util.Optional".equals(qualifiedName) || "com.google.common.base.Optional".equals(qualifiedName)) {
+            return "0..1";
+        } else if ("java.lang.Iterable".equals(qualifiedName) || "java.util.stream.Stream".equals(qualifiedName)) {
+            return "*";
+        }
+        return null;
+    }
+
+    /**
+     * Whether the type, or any of its supertypes, is a type with a cardinality.
+     * <p>
+     * For declared types this is remembered per type element; other types are always searched.
+     *
+     * @param type      The type to classify.
+     * @param typeUtils The type utils to use for supertype introspection.
+     * @param typeNames The function to obtain type names with.
+     * @param memo      The remembered classification per type element.
+     * @return {@code true} if the supertypes of the type need to be searched for a cardinality.
+     */
+    private static boolean hasCardinality(TypeMirror type, Types typeUtils, Function<TypeMirror, TypeName> typeNames,
+                                          Map<Element, Boolean> memo) {
+        if (!TypeKind.DECLARED.equals(type.getKind())) return true;
+        final Element element = ((DeclaredType) type).asElement();
+        Boolean result = memo.get(element);
+        if (result == null) {
+            result = cardinalityOf(typeNames.apply(type).qualified) != null
+                    || typeUtils.directSupertypes(element.asType()).stream()
+                    .anyMatch(superType -> hasCardinality(superType, typeUtils, typeNames, memo));
+            memo.put(element, result);
+        }
+        return result;
+    }
 }
@@ -26,6 +26,7 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -33,17 +34,21 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 import java.util.*;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toCollection;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.newSetFromMap;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static javax.lang.model.element.ElementKind.ENUM;
 
 /**
  * One big factory to produce UML from analyzed Javadoc elements.
  * <p>
+ * Each type element is only analyzed once into a {@linkplain TypeModel},
+ * the types in all class and package diagrams are created from these models.
+ * <p>
  * TODO: This should be refactored into ClassDiagram and PackageDiagram visitor implementations.
  * This increases flexibility in supporting future language features however may introduce additional risk
  * with regard to unbounded recursion (see <a href="https://github.com/talsma-ict/umldoclet/issues/75">Issue 75</a>
@@ -55,21 +60,22 @@ public class UMLFactory {
 
     private static final UmlPostProcessors POST_PROCESSORS = new UmlPostProcessors();
 
-    private static final Predicate<UMLNode> IS_ABSTRACT_METHOD = node ->
-            node instanceof Method && ((Method) node).isAbstract;
-
     final Configuration config;
     private final DocletEnvironment env;
+    private final Function<TypeMirror, TypeName> typeNames;
     private final Function<TypeMirror, TypeNameWithCardinality> typeNameWithCardinality;
+    private final Map<TypeElement, TypeModel> typeModels = new HashMap<>();
 
     public UMLFactory(Configuration config, DocletEnvironment env) {
         this.config = requireNonNull(config, "Configuration is <null>.");
         this.env = requireNonNull(env, "Doclet environment is <null>.");
-        this.typeNameWithCardinality = TypeNameWithCardinality.function(env.getTypeUtils());
+        this.typeNames = TypeNameVisitor.cachingFunction();
+        this.typeNameWithCardinality = TypeNameWithCardinality.function(env.getTypeUtils(), typeNames);
     }
 
     public Diagram createClassDiagram(TypeElement classElement) {
-        Type type = createAndPopulateType(null, classElement);
+        TypeModel model = typeModel(classElement);
+        Type type = model.createPopulatedType(null);
         ClassDiagram classDiagram = new ClassDiagram(config, type);
 
         List<TypeName> foundTypeVariables = new ArrayList<>();
@@ -77,20 +83,14 @@ public class UMLFactory {
         UmlCharacters sep = UmlCharacters.NEWLINE;
 
         // Add superclass
-        TypeMirror superclassType = classElement.getSuperclass();
-        Element superclassElement = env.getTypeUtils().asElement(superclassType);
-        while (superclassElement instanceof TypeElement && !includeSuperclass((TypeElement) superclassElement)) {
-            superclassType = ((TypeElement) superclassElement).getSuperclass();
-            superclassElement = env.getTypeUtils().asElement(superclassType);
-        }
-        if (superclassElement instanceof TypeElement) {
-            final TypeName superclassName = TypeNameVisitor.INSTANCE.visit(superclassType);
+        if (model.superclass != null) {
+            final TypeName superclassName = model.superclass.name;
             if (superclassName.getGenerics().length > 0) foundTypeVariables.add(superclassName);
             if (!config.excludedTypeReferences().contains(superclassName.qualified)) {
                 classDiagram.addChild(sep);
-                Type superType = createAndPopulateType(null, (TypeElement) superclassElement);
-                // Only keep abstract methods of supertype.
-                superType.removeChildren(not(IS_ABSTRACT_METHOD));
+                // Only show abstract methods of supertype.
+                Type superType = typeModel(model.superclass.element)
+                        .createPopulatedType(null, TypeModel.Member::isAbstractMethod);
                 classDiagram.addChild(superType);
                 sep = UmlCharacters.EMPTY;
                 references.add(new Reference(
@@ -102,15 +102,14 @@ public class UMLFactory {
         }
 
         // Add interfaces
-        for (TypeMirror interfaceType : classElement.getInterfaces()) {
-            TypeName ifName = TypeNameVisitor.INSTANCE.visit(interfaceType);
+        for (TypeModel.Supertype implementedInterface : model.interfaces) {
+            TypeName ifName = implementedInterface.name;
             if (ifName.getGenerics().length > 0) foundTypeVariables.add(ifName);
             if (!config.excludedTypeReferences().contains(ifName.qualified)) {
-                Element implementedInterface = env.getTypeUtils().asElement(interfaceType);
-                if (implementedInterface instanceof TypeElement) {
+                if (implementedInterface.element != null) {
                     classDiagram.addChild(sep);
-                    Type implementedType = createAndPopulateType(null, (TypeElement) implementedInterface);
-                    implementedType.removeChildren(not(IS_ABSTRACT_METHOD));
+                    Type implementedType = typeModel(implementedInterface.element)
+                            .createPopulatedType(null, TypeModel.Member::isAbstractMethod);
                     classDiagram.addChild(implementedType);
                     sep = UmlCharacters.EMPTY;
                 }
@@ -123,16 +122,14 @@ public class UMLFactory {
         }
 
         // Add containing class reference
-        ElementKind enclosingKind = classElement.getEnclosingElement().getKind();
-        if (enclosingKind.isClass() || enclosingKind.isInterface()) {
-            TypeName enclosingTypeName = TypeNameVisitor.INSTANCE.visit(classElement.getEnclosingElement().asType());
+        if (model.enclosingTypeName != null) {
+            TypeName enclosingTypeName = model.enclosingTypeName;
             if (enclosingTypeName.getGenerics().length > 0) foundTypeVariables.add(enclosingTypeName);
             if (!config.excludedTypeReferences().contains(enclosingTypeName.qualified)) {
-                Element enclosingElement = classElement.getEnclosingElement();
-                if (enclosingElement instanceof TypeElement) {
+                if (model.enclosingType != null) {
                     classDiagram.addChild(sep);
-                    Type enclosingType = createAndPopulateType(null, (TypeElement) enclosingElement);
-                    enclosingType.removeChildren(not(IS_ABSTRACT_METHOD));
+                    Type enclosingType = typeModel(model.enclosingType)
+                            .createPopulatedType(null, TypeModel.Member::isAbstractMethod);
                     classDiagram.addChild(enclosingType);
                     sep = UmlCharacters.EMPTY;
                 }
@@ -145,12 +142,11 @@ public class UMLFactory {
         }
 
         // Add inner classes
-        classElement.getEnclosedElements().stream()
+        model.nestedTypes.stream()
                 .filter(child -> child.getKind().isInterface() || child.getKind().isClass())
-                .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
                 .filter(env::isIncluded)
                 .forEach(innerclassElem -> {
-                    Type innerType = createType(null, innerclassElem);
+                    Type innerType = typeModel(innerclassElem).createType(null);
                     classDiagram.addChild(innerType);
                     references.add(new Reference(
                             Reference.from(type.getName().qualified, null),
@@ -207,18 +203,23 @@ public class UMLFactory {
 
         // Filter "java.lang" or "java.util" references that occur >= 3 times
         // Maybe somehow make this configurable as well?
-        foreignTypes.entrySet().stream()
-                .filter(entry -> "java.lang".equals(entry.getKey()) || "java.util".equals(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .forEach(types -> {
-                    for (Iterator<Type> it = types.iterator(); it.hasNext(); ) {
-                        Type type = it.next();
-                        if (references.stream().filter(ref -> ref.contains(type.getName())).limit(3).count() > 2) {
-                            references.removeIf(ref -> ref.contains(type.getName()));
-                            it.remove();
+        if (foreignTypes.containsKey("java.lang") || foreignTypes.containsKey("java.util")) {
+            final Map<String, List<Reference>> referencesByType = referencesByType(references);
+            final Set<Reference> removedReferences = newSetFromMap(new IdentityHashMap<>());
+            foreignTypes.entrySet().stream()
+                    .filter(entry -> "java.lang".equals(entry.getKey()) || "java.util".equals(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .forEach(types -> {
+                        for (Iterator<Type> it = types.iterator(); it.hasNext(); ) {
+                            List<Reference> typeReferences = referencesByType.getOrDefault(it.next().getName().qualified, emptyList());
+                            if (typeReferences.stream().filter(ref -> !removedReferences.contains(ref)).limit(3).count() > 2) {
+                                removedReferences.addAll(typeReferences);
+                                it.remove();
+                            }
                         }
-                    }
-                });
+                    });
+            if (!removedReferences.isEmpty()) references.removeIf(removedReferences::contains);
+        }
 
         // Add all remaining foreign types to the diagram.
         foreignTypes.entrySet().stream()
@@ -246,60 +247,176 @@ public class UMLFactory {
         return packageDiagram;
     }
 
-    Namespace packageOf(TypeElement typeElement) {
+    /**
+     * The model of a type element, which is extracted from the javadoc element model the first time it is needed.
+     * <p>
+     * A type is often shown in several diagrams; in its own class diagram, its package diagram
+     * and as supertype or foreign type in other diagrams.
+     * Each of these diagrams create their own {@linkplain Type} from the same model.
+     *
+     * @param typeElement The type element to obtain the model for.
+     * @return The model of the type.
+     */
+    private TypeModel typeModel(TypeElement typeElement) {
+        TypeModel model = typeModels.get(requireNonNull(typeElement, "Type element is <null>."));
+        if (model == null) {
+            model = extractTypeModel(typeElement);
+            typeModels.put(typeElement, model);
+        }
+        return model;
+    }
+
+    private TypeModel extractTypeModel(TypeElement typeElement) {
         final ModuleElement module = env.getElementUtils().getModuleOf(typeElement);
-        return new Namespace(null, env.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString(),
-                module == null ? null : module.getQualifiedName().toString());
+        final Type.Classification classification = typeClassificationOf(typeElement);
+        final List<? extends Element> enclosedElements = typeElement.getEnclosedElements();
+
+        // Superclass, skipping superclasses that are not included.
+        TypeMirror superclassType = typeElement.getSuperclass();
+        Element superclassElement = env.getTypeUtils().asElement(superclassType);
+        while (superclassElement instanceof TypeElement && !includeSuperclass((TypeElement) superclassElement)) {
+            superclassType = ((TypeElement) superclassElement).getSuperclass();
+            superclassElement = env.getTypeUtils().asElement(superclassType);
+        }
+        TypeModel.Supertype superclass = superclassElement instanceof TypeElement
+                ? new TypeModel.Supertype(typeNames.apply(superclassType), (TypeElement) superclassElement)
+                : null;
+
+        List<TypeModel.Supertype> interfaces = typeElement.getInterfaces().stream()
+                .map(interfaceType -> {
+                    Element interfaceElement = env.getTypeUtils().asElement(interfaceType);
+                    return new TypeModel.Supertype(typeNames.apply(interfaceType),
+                            interfaceElement instanceof TypeElement ? (TypeElement) interfaceElement : null);
+                })
+                .collect(toList());
+
+        Element enclosingElement = typeElement.getEnclosingElement();
+        ElementKind enclosingKind = enclosingElement.getKind();
+        boolean isNested = enclosingKind.isClass() || enclosingKind.isInterface();
+
+        return new TypeModel(typeElement,
+                typeNames.apply(typeElement.asType()),
+                classification,
+                env.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString(),
+                module == null ? null : module.getQualifiedName().toString(),
+                env.getElementUtils().isDeprecated(typeElement),
+                extractMembers(classification, enclosedElements),
+                superclass,
+                interfaces,
+                isNested ? typeNames.apply(enclosingElement.asType()) : null,
+                isNested && enclosingElement instanceof TypeElement ? (TypeElement) enclosingElement : null,
+                enclosedElements.stream()
+                        .filter(TypeElement.class::isInstance).map(TypeElement.class::cast)
+                        .collect(toList()),
+                env.isIncluded(typeElement) ? extractUsesReferences(enclosedElements) : null);
     }
 
-    Field createField(Type containingType, VariableElement variable) {
+    private List<TypeModel.Member> extractMembers(Type.Classification classification, List<? extends Element> enclosedElements) {
+        // Add the various parts of the class UML, order matters here, obviously!
+        List<TypeModel.Member> members = new ArrayList<>();
+        if (Type.Classification.ENUM.equals(classification)) enclosedElements.stream()
+                .filter(elem -> ElementKind.ENUM_CONSTANT.equals(elem.getKind()))
+                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+                .map(this::extractField)
+                .forEach(members::add);
+
+        enclosedElements.stream()
+                .filter(elem -> ElementKind.FIELD.equals(elem.getKind()))
+                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+                .map(this::extractField)
+                .forEach(members::add);
+
+        List<ExecutableElement> constructors = enclosedElements.stream()
+                .filter(elem -> ElementKind.CONSTRUCTOR.equals(elem.getKind()))
+                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+                .collect(toList());
+        if (!isOnlyDefaultConstructor(constructors)) {
+            constructors.stream()
+                    .map(constructor -> extractExecutable(constructor, true))
+                    .forEach(members::add);
+        }
+
+        enclosedElements.stream()
+                .filter(elem -> ElementKind.METHOD.equals(elem.getKind()))
+                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+                .filter(method -> !isMethodFromExcludedSuperclass(method))
+                .map(method -> extractExecutable(method, false))
+                .forEach(members::add);
+
+        return members;
+    }
+
+    private TypeModel.Member extractField(VariableElement variable) {
         Set<Modifier> modifiers = requireNonNull(variable, "Variable element is <null>.").getModifiers();
-        Field field = new Field(containingType,
+        return TypeModel.Member.field(
                 variable.getSimpleName().toString(),
-                TypeNameVisitor.INSTANCE.visit(variable.asType()));
-        field.setVisibility(visibilityOf(modifiers));
-        field.isStatic = modifiers.contains(Modifier.STATIC);
-        field.isDeprecated = env.getElementUtils().isDeprecated(variable);
-        return field;
+                typeNames.apply(variable.asType()),
+                visibilityOf(modifiers),
+                modifiers.contains(Modifier.STATIC),
+                env.getElementUtils().isDeprecated(variable));
     }
 
-    private Parameters createParameters(List<? extends VariableElement> params) {
-        Parameters result = new Parameters(null);
-        Boolean varargs = null;
+    private TypeModel.Member extractExecutable(ExecutableElement executableElement, boolean isConstructor) {
+        Set<Modifier> modifiers = requireNonNull(executableElement, "Executable element is <null>.").getModifiers();
+        List<? extends VariableElement> params = executableElement.getParameters();
+        List<String> parameterNames = new ArrayList<>(params.size());
+        List<TypeName> parameterTypes = new ArrayList<>(params.size());
         for (VariableElement param : params) {
-            if (varargs == null) result = result.varargs(varargs = isVarArgsMethod(param.getEnclosingElement()));
-            result = result.add(param.getSimpleName().toString(), TypeNameVisitor.INSTANCE.visit(param.asType()));
+            parameterNames.add(param.getSimpleName().toString());
+            parameterTypes.add(typeNames.apply(param.asType()));
         }
-        return result;
+        boolean isVarargs = !params.isEmpty() && executableElement.isVarArgs();
+        return isConstructor
+                ? TypeModel.Member.constructor(visibilityOf(modifiers),
+                modifiers.contains(Modifier.STATIC),
+                modifiers.contains(Modifier.ABSTRACT),
+                env.getElementUtils().isDeprecated(executableElement),
+                isVarargs, parameterNames, parameterTypes)
+                : TypeModel.Member.method(executableElement.getSimpleName().toString(),
+                typeNames.apply(executableElement.getReturnType()),
+                visibilityOf(modifiers),
+                modifiers.contains(Modifier.STATIC),
+                modifiers.contains(Modifier.ABSTRACT),
+                env.getElementUtils().isDeprecated(executableElement),
+                isVarargs, parameterNames, parameterTypes);
     }
 
-    private boolean isOnlyDefaultConstructor(Collection<ExecutableElement> constructors) {
-        return constructors.size() == 1 && constructors.iterator().next().getParameters().isEmpty();
-    }
+    /**
+     * Extracts the visible fields and JavaBean properties of an included type,
+     * that are shown as 'uses' references in its package diagram if their type is in the same package.
+     *
+     * @param enclosedElements The enclosed elements of the type.
+     * @return The potential 'uses' references of the type.
+     */
+    private List<TypeModel.UsesReference> extractUsesReferences(List<? extends Element> enclosedElements) {
+        List<TypeModel.UsesReference> usesReferences = new ArrayList<>();
+        enclosedElements.stream()
+                .filter(member -> ElementKind.FIELD.equals(member.getKind()))
+                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
+                .filter(field -> config.fields().include(visibilityOf(field.getModifiers())))
+                .forEach(field -> {
+                    String fieldName = field.getSimpleName().toString();
+                    usesReferences.add(new TypeModel.UsesReference(
+                            fieldName, typeNameWithCardinality.apply(field.asType()), false, fieldName));
+                });
 
-    Method createConstructor(Type containingType, ExecutableElement executableElement) {
-        Set<Modifier> modifiers = requireNonNull(executableElement, "Executable element is <null>.").getModifiers();
-        Method constructor = new Method(containingType, containingType.getName().simple, null);
-        constructor.setVisibility(visibilityOf(modifiers));
-        constructor.isAbstract = modifiers.contains(Modifier.ABSTRACT);
-        constructor.isStatic = modifiers.contains(Modifier.STATIC);
-        constructor.isDeprecated = env.getElementUtils().isDeprecated(executableElement);
-        constructor.addChild(createParameters(executableElement.getParameters()));
-        return constructor;
+        enclosedElements.stream()
+                .filter(member -> ElementKind.METHOD.equals(member.getKind()))
+                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
+                .filter(method -> config.methods().include(visibilityOf(method.getModifiers())))
+                .forEach(method -> {
+                    String propertyName = propertyName(method);
+                    if (propertyName != null) {
+                        usesReferences.add(new TypeModel.UsesReference(
+                                propertyName, typeNameWithCardinality.apply(propertyType(method)),
+                                true, method.getSimpleName().toString()));
+                    }
+                });
+        return usesReferences;
     }
 
-    Method createMethod(Type containingType, ExecutableElement executableElement) {
-        Set<Modifier> modifiers = requireNonNull(executableElement, "Executable element is <null>.").getModifiers();
-        Method method = new Method(containingType,
-                executableElement.getSimpleName().toString(),
-                TypeNameVisitor.INSTANCE.visit(executableElement.getReturnType())
-        );
-        method.setVisibility(visibilityOf(modifiers));
-        method.isAbstract = modifiers.contains(Modifier.ABSTRACT);
-        method.isStatic = modifiers.contains(Modifier.STATIC);
-        method.isDeprecated = env.getElementUtils().isDeprecated(executableElement);
-        method.addChild(createParameters(executableElement.getParameters()));
-        return method;
+    private boolean isOnlyDefaultConstructor(Collection<ExecutableElement> constructors) {
+        return constructors.size() == 1 && constructors.iterator().next().getParameters().isEmpty();
     }
 
     static Visibility visibilityOf(Set<Modifier> modifiers) {
@@ -309,23 +426,6 @@ public class UMLFactory {
                 : Visibility.PACKAGE_PRIVATE;
     }
 
-    /**
-     * Creates an 'empty' type (i.e. without any fields, constructors or methods)
-     *
-     * @param containingPackage The containing package of the type (optional, will be obtained from typeElement if null).
-     * @param type              The type element to create a Type object for.
-     * @return The empty Type object.
-     */
-    private Type createType(Namespace containingPackage, TypeElement type) {
-        requireNonNull(type, "Type element is <null>.");
-        if (containingPackage == null) containingPackage = packageOf(type);
-        return new Type(containingPackage, typeClassificationOf(type), TypeNameVisitor.INSTANCE.visit(type.asType()));
-    }
-
-    private Type createAndPopulateType(Namespace containingPackage, TypeElement type) {
-        return populateType(createType(containingPackage, type), type);
-    }
-
     private static Type.Classification typeClassificationOf(TypeElement type) {
         ElementKind kind = type.getKind();
         Set<Modifier> modifiers = type.getModifiers();
@@ -336,56 +436,29 @@ public class UMLFactory {
                 : Type.Classification.CLASS;
     }
 
-    private Type populateType(Type type, TypeElement typeElement) {
-        // Add the various parts of the class UML, order matters here, obviously!
-        List<? extends Element> enclosedElements = typeElement.getEnclosedElements();
-        if (Type.Classification.ENUM.equals(type.getClassfication())) enclosedElements.stream()
-                .filter(elem -> ElementKind.ENUM_CONSTANT.equals(elem.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
-                .map(enumConst -> createField(type, enumConst))
-                .forEach(type::addChild);
-
-        enclosedElements.stream()
-                .filter(elem -> ElementKind.FIELD.equals(elem.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
-                .map(field -> createField(type, field))
-                .forEach(type::addChild);
-
-        List<ExecutableElement> constructors = enclosedElements.stream()
-                .filter(elem -> ElementKind.CONSTRUCTOR.equals(elem.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
-                .collect(toList());
-        if (!isOnlyDefaultConstructor(constructors)) {
-            constructors.stream()
-                    .map(constructor -> createConstructor(type, constructor))
-                    .forEach(type::addChild);
-        }
-
-        enclosedElements.stream()
-                .filter(elem -> ElementKind.METHOD.equals(elem.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
-                .filter(method -> !isMethodFromExcludedSuperclass(method))
-                .map(method -> createMethod(type, method))
-                .forEach(type::addChild);
-
-        return env.getElementUtils().isDeprecated(typeElement) ? type.deprecated() : type;
-    }
-
     private boolean isMethodFromExcludedSuperclass(ExecutableElement method) {
         boolean result = false;
         Element containingClass = method.getEnclosingElement();
         if (containingClass.getKind().isClass() || containingClass.getKind().isInterface()) {
-            result = methodsFromExcludedSuperclasses().stream().anyMatch(
-                    m -> similarMethodSignatures(m, method)
-                            && env.getTypeUtils().isAssignable(containingClass.asType(), m.getEnclosingElement().asType()));
+            result = methodsFromExcludedSuperclasses(method.getSimpleName()).stream().anyMatch(
+                    m -> similarMethodSignatures(m, method) && isAssignable(containingClass, m.getEnclosingElement()));
         }
         result = result || isExcludedEnumMethod(method);
         return result;
     }
 
-    private Collection<ExecutableElement> _methodsFromExcludedSuperclasses = null;
+    private Map<Name, List<ExecutableElement>> _methodsFromExcludedSuperclasses = null;
 
-    private Collection<ExecutableElement> methodsFromExcludedSuperclasses() {
+    /**
+     * The visible, non-abstract methods of the excluded type references with a particular name.
+     * <p>
+     * The methods are indexed by name once, so each method of each documented type only needs to be compared
+     * with the few excluded methods with the same name.
+     *
+     * @param methodName The simple name of the method.
+     * @return The excluded methods with the same name.
+     */
+    private List<ExecutableElement> methodsFromExcludedSuperclasses(Name methodName) {
         if (_methodsFromExcludedSuperclasses == null) {
             _methodsFromExcludedSuperclasses = config.excludedTypeReferences().stream()
                     .map(env.getElementUtils()::getTypeElement).filter(Objects::nonNull)
@@ -394,9 +467,24 @@ public class UMLFactory {
                     .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
                     .filter(method -> !method.getModifiers().contains(Modifier.ABSTRACT))
                     .filter(method -> visibilityOf(method.getModifiers()).compareTo(Visibility.PRIVATE) > 0)
-                    .collect(toCollection(LinkedHashSet::new));
+                    .distinct()
+                    .collect(groupingBy(ExecutableElement::getSimpleName));
         }
-        return _methodsFromExcludedSuperclasses;
+        return _methodsFromExcludedSuperclasses.getOrDefault(methodName, emptyList());
+    }
+
+    private final Map<Element, Map<Element, Boolean>> _assignableClasses = new HashMap<>();
+
+    /**
+     * Whether a class is assignable to a superclass, remembered for each pair of classes.
+     *
+     * @param containingClass The class containing a method.
+     * @param declaringClass  The (excluded) class declaring a similar method.
+     * @return {@code true} if the containing class is assignable to the declaring class.
+     */
+    private boolean isAssignable(Element containingClass, Element declaringClass) {
+        return _assignableClasses.computeIfAbsent(containingClass, c -> new HashMap<>()).computeIfAbsent(declaringClass,
+                d -> env.getTypeUtils().isAssignable(containingClass.asType(), declaringClass.asType()));
     }
 
     private boolean isExcludedEnumMethod(ExecutableElement method) {
@@ -406,7 +494,7 @@ public class UMLFactory {
             if ("values".equals(method.getSimpleName().toString()) && method.getParameters().isEmpty()) {
                 return true;
             } else if ("valueOf".equals(method.getSimpleName().toString()) && method.getParameters().size() == 1) {
-                String paramType = TypeNameVisitor.INSTANCE.visit(method.getParameters().get(0).asType()).qualified;
+                String paramType = typeNames.apply(method.getParameters().get(0).asType()).qualified;
                 return String.class.getName().equals(paramType);
             }
         }
@@ -429,106 +517,89 @@ public class UMLFactory {
         return assignable1 || assignable2;
     }
 
-    private void addForeignType(Map<String, Collection<Type>> foreignTypes, Element typeElement) {
-        if (foreignTypes != null && typeElement instanceof TypeElement) {
-            Type type = createAndPopulateType(null, (TypeElement) typeElement);
-            if (typeElement.getKind().isClass()) {
-                type.removeChildren(child -> child instanceof Method && !((Method) child).isAbstract);
-            }
+    private void addForeignType(Map<String, Collection<Type>> foreignTypes, TypeElement typeElement) {
+        if (foreignTypes != null && typeElement != null) {
+            // Only show fields and abstract methods of foreign classes.
+            Type type = typeModel(typeElement).createPopulatedType(null, typeElement.getKind().isClass()
+                    ? member -> member.isField() || member.isAbstractMethod()
+                    : member -> true);
             foreignTypes.computeIfAbsent(type.getPackagename(), (namespace) -> new LinkedHashSet<>()).add(type);
         }
     }
 
+    /**
+     * Index the references by the qualified names of the types they refer from or to.
+     *
+     * @param references The references to index.
+     * @return The references per qualified type name, in their original order.
+     */
+    private static Map<String, List<Reference>> referencesByType(List<Reference> references) {
+        Map<String, List<Reference>> referencesByType = new HashMap<>();
+        for (Reference reference : references) {
+            String from = reference.from.getQualifiedName();
+            String to = reference.to.getQualifiedName();
+            referencesByType.computeIfAbsent(from, name -> new ArrayList<>()).add(reference);
+            if (!to.equals(from)) referencesByType.computeIfAbsent(to, name -> new ArrayList<>()).add(reference);
+        }
+        return referencesByType;
+    }
+
     private Collection<Reference> findPackageReferences(
-            Namespace namespace, Map<String, Collection<Type>> foreignTypes, TypeElement typeElement, Type type, String separator) {
-        Collection<Reference> references = new LinkedHashSet<>();
+            Namespace namespace, Map<String, Collection<Type>> foreignTypes, TypeModel model, Type type, String separator) {
+        Map<Reference, Reference> references = new LinkedHashMap<>();
 
         // Superclass reference.
-        TypeMirror superclassType = typeElement.getSuperclass();
-        Element superclassElement = env.getTypeUtils().asElement(superclassType);
-        while (superclassElement instanceof TypeElement && !includeSuperclass((TypeElement) superclassElement)) {
-            superclassType = ((TypeElement) superclassElement).getSuperclass();
-            superclassElement = env.getTypeUtils().asElement(superclassType);
-        }
-        if (superclassElement instanceof TypeElement) {
-            TypeName superclassName = TypeNameVisitor.INSTANCE.visit(superclassType);
+        if (model.superclass != null) {
+            TypeName superclassName = model.superclass.name;
             if (!config.excludedTypeReferences().contains(superclassName.qualified)) {
-                references.add(new Reference(
+                addReferenceIfAbsent(references, new Reference(
                         Reference.from(type.getName().getQualified(separator), null),
                         "--|>",
                         Reference.to(superclassName.getQualified(separator), null)));
                 if (!namespace.contains(superclassName)) {
-                    addForeignType(foreignTypes, superclassElement);
+                    addForeignType(foreignTypes, model.superclass.element);
                 }
             }
         }
 
         // Implemented interfaces.
-        typeElement.getInterfaces().forEach(interfaceType -> {
-            TypeName interfaceName = TypeNameVisitor.INSTANCE.visit(interfaceType);
+        model.interfaces.forEach(implementedInterface -> {
+            TypeName interfaceName = implementedInterface.name;
             if (!config.excludedTypeReferences().contains(interfaceName.qualified)) {
-                references.add(new Reference(
+                addReferenceIfAbsent(references, new Reference(
                         Reference.from(type.getName().getQualified(separator), null),
                         interfaceRefTypeFrom(type),
                         Reference.to(interfaceName.getQualified(separator), null)));
                 // TODO Figure out what to do IF the interface is found BUT has a different typename
                 if (!namespace.contains(interfaceName)) {
-                    addForeignType(foreignTypes, env.getTypeUtils().asElement(interfaceType));
+                    addForeignType(foreignTypes, implementedInterface.element);
                 }
             }
         });
 
         // Add reference to containing class from innner classes.
-        ElementKind enclosingKind = typeElement.getEnclosingElement().getKind();
-        if (enclosingKind.isClass() || enclosingKind.isInterface()) {
-            TypeName parentType = TypeNameVisitor.INSTANCE.visit(typeElement.getEnclosingElement().asType());
-            references.add(new Reference(
-                    Reference.from(parentType.getQualified(separator), null),
+        if (model.enclosingTypeName != null) {
+            addReferenceIfAbsent(references, new Reference(
+                    Reference.from(model.enclosingTypeName.getQualified(separator), null),
                     "+--",
                     Reference.to(type.getName().getQualified(separator), null)));
             // No check needed whether parent type lives in our namespace.
         }
 
-        // Add 'uses' references by replacing visible fields
-        typeElement.getEnclosedElements().stream()
-                .filter(member -> ElementKind.FIELD.equals(member.getKind()))
-                .filter(VariableElement.class::isInstance).map(VariableElement.class::cast)
-                .filter(field -> config.fields().include(visibilityOf(field.getModifiers())))
-                .forEach(field -> {
-                    String fieldName = field.getSimpleName().toString();
-                    TypeNameWithCardinality fieldType = typeNameWithCardinality.apply(field.asType());
-                    if (namespace.contains(fieldType.typeName)) {
-                        addReference(references, new Reference(
-                                Reference.from(type.getName().getQualified(separator), null),
-                                "-->",
-                                Reference.to(fieldType.typeName.getQualified(separator), fieldType.cardinality),
-                                fieldName));
-                        type.removeChildren(child -> child instanceof Field && ((Field) child).name.equals(fieldName));
-                    }
-                });
-
-        // Add 'uses' reference by replacing visible getters/setters
-        typeElement.getEnclosedElements().stream()
-                .filter(member -> ElementKind.METHOD.equals(member.getKind()))
-                .filter(ExecutableElement.class::isInstance).map(ExecutableElement.class::cast)
-                .filter(method -> config.methods().include(visibilityOf(method.getModifiers())))
-                .forEach(method -> {
-                    String propertyName = propertyName(method);
-                    if (propertyName != null) {
-                        TypeNameWithCardinality returnType = typeNameWithCardinality.apply(propertyType(method));
-                        if (namespace.contains(returnType.typeName)) {
-                            addReference(references, new Reference(
-                                    Reference.from(type.getName().getQualified(separator), null),
-                                    "-->",
-                                    Reference.to(returnType.typeName.getQualified(separator), returnType.cardinality),
-                                    propertyName));
-                            type.removeChildren(child -> child instanceof Method
-                                    && ((Method) child).name.equals(method.getSimpleName().toString()));
-                        }
-                    }
-                });
+        // Add 'uses' references by replacing visible fields and getters/setters
+        model.usesReferences.forEach(uses -> {
+            if (namespace.contains(uses.type.typeName)) {
+                addReference(references, new Reference(
+                        Reference.from(type.getName().getQualified(separator), null),
+                        "-->",
+                        Reference.to(uses.type.typeName.getQualified(separator), uses.type.cardinality),
+                        uses.name));
+                type.removeChildren(child -> (uses.isMethod ? child instanceof Method : child instanceof Field)
+                        && ((TypeMember) child).name.equals(uses.memberName));
+            }
+        });
 
-        return references;
+        return references.values();
     }
 
     private static String propertyName(ExecutableElement method) {
@@ -563,10 +634,6 @@ public class UMLFactory {
         return method.getReturnType();
     }
 
-    private static boolean isVarArgsMethod(Element element) {
-        return element instanceof ExecutableElement && ((ExecutableElement) element).isVarArgs();
-    }
-
     private static boolean isBooleanPrimitive(TypeMirror type) {
         return "boolean".equals(TypeNameVisitor.INSTANCE.visit(type).qualified);
     }
@@ -576,15 +643,26 @@ public class UMLFactory {
         return isExtendedBySubInterface ? "--|>" : "..|>";
     }
 
-    private static void addReference(Collection<Reference> collection, Reference reference) {
+    private static void addReferenceIfAbsent(Map<Reference, Reference> references, Reference reference) {
+        references.putIfAbsent(reference, reference);
+    }
+
+    /**
+     * Adds a reference, merging the notes of an equal reference that was already added.
+     * <p>
+     * The merged reference is moved to the end.
+     *
+     * @param references The references, keyed by themselves.
+     * @param reference  The reference to add.
+     */
+    private static void addReference(Map<Reference, Reference> references, Reference reference) {
         Reference result = reference;
-        Optional<Reference> found = collection.stream().filter(reference::equals).findFirst();
-        if (found.isPresent()) {
-            result = found.get();
-            collection.remove(result);
+        Reference found = references.remove(reference);
+        if (found != null) {
+            result = found;
             for (String note : reference.notes) result = result.addNote(note);
         }
-        collection.add(result);
+        references.put(result, result);
     }
 
     private static Stream<TypeElement> innerTypes(TypeElement type) {
@@ -608,8 +686,9 @@ public class UMLFactory {
                 .flatMap(UMLFactory::innerTypes)
                 .filter(env::isIncluded)
                 .map(typeElement -> {
-                    Type type = createAndPopulateType(pkg, typeElement);
-                    references.addAll(findPackageReferences(pkg, foreignTypes, typeElement, type, referenceSeparator));
+                    TypeModel model = typeModel(typeElement);
+                    Type type = model.createPopulatedType(pkg);
+                    references.addAll(findPackageReferences(pkg, foreignTypes, model, type, referenceSeparator));
                     return type;
                 })
                 .flatMap(type -> Stream.of(UmlCharacters.NEWLINE, type))
@@ -617,8 +696,4 @@ public class UMLFactory {
 
         return pkg;
     }
-
-    private static <T> Predicate<T> not(Predicate<T> predicate) {
-        return t -> !predicate.test(t);
-    }
 }
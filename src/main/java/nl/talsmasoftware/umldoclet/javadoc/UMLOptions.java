@@ -87,6 +87,7 @@ final class UMLOptions {
         this.options.add(new Option("--create-puml-files -createPumlFiles", 0, Kind.STANDARD, args -> config.renderPumlFile = true));
         this.options.add(new Option("--uml-image-directory -umlImageDirectory", 1, Kind.STANDARD, args -> config.images.directory = args.get(0)));
         this.options.add(new Option("--uml-image-format -umlImageFormat", 1, Kind.STANDARD, args -> config.images.addImageFormat(args.get(0))));
+        this.options.add(new Option("--uml-cache-dir -umlCacheDir", 1, Kind.STANDARD, args -> config.images.cacheDirectory = args.get(0)));
         this.options.add(new Option("--uml-encoding -umlEncoding", 1, Kind.STANDARD, args -> config.umlencoding = args.get(0)));
         this.options.add(new Option("--uml-excluded-type-references -umlExcludedTypeReferences", 1, Kind.STANDARD,
                 args -> config.excludedReferences = splitToList(args.get(0))));
@@ -99,6 +100,12 @@ final class UMLOptions {
         this.options.add(new Option("--uml-java-bean-properties-as-fields -umlJavaBeanPropertiesAsFields", 0, Kind.STANDARD,
                 args -> config.methodConfig.javaBeanPropertiesAsFields = true));
         this.options.add(new Option("--uml-timeout -umlTimeout", 1, Kind.STANDARD, this::setTimeout));
+        this.options.add(new Option("--uml-threads -umlThreads", 1, Kind.STANDARD, this::setRenderThreads));
+        this.options.add(new Option("--uml-render-processes -umlRenderProcesses", 1, Kind.STANDARD, this::setRenderProcesses));
+        this.options.add(new Option("--uml-render-process-option -umlRenderProcessOption", 1, Kind.STANDARD,
+                args -> config.renderProcessOptions.add(args.get(0))));
+        this.options.add(new Option("--uml-render-process-diagrams -umlRenderProcessDiagrams", 1, Kind.STANDARD,
+                this::setRenderProcessDiagrams));
     }
 
     Set<Doclet.Option> mergeWith(final Set<? extends Doclet.Option> standardOptions) {
@@ -133,6 +140,36 @@ final class UMLOptions {
         }
     }
 
+    private void setRenderThreads(List<String> threads) {
+        try {
+            int renderThreads = Integer.parseInt(threads.get(0));
+            if (renderThreads < 1) throw new IllegalArgumentException("At least one thread is required.");
+            config.renderThreads = renderThreads;
+        } catch (RuntimeException rte) {
+            throw new IllegalArgumentException("Unrecognized threads value: positive number expected, received: " + threads, rte);
+        }
+    }
+
+    private void setRenderProcesses(List<String> processes) {
+        try {
+            int renderProcesses = Integer.parseInt(processes.get(0));
+            if (renderProcesses < 0) throw new IllegalArgumentException("Number of processes cannot be negative.");
+            config.renderProcesses = renderProcesses;
+        } catch (RuntimeException rte) {
+            throw new IllegalArgumentException("Unrecognized processes value: number expected, received: " + processes, rte);
+        }
+    }
+
+    private void setRenderProcessDiagrams(List<String> diagrams) {
+        try {
+            int renderProcessDiagrams = Integer.parseInt(diagrams.get(0));
+            if (renderProcessDiagrams < 1) throw new IllegalArgumentException("At least one diagram is required.");
+            config.renderProcessDiagrams = renderProcessDiagrams;
+        } catch (RuntimeException rte) {
+            throw new IllegalArgumentException("Unrecognized diagrams value: positive number expected, received: " + diagrams, rte);
+        }
+    }
+
     private class Option implements Doclet.Option {
         private static final String MISSING_KEY = "<MISSING KEY>";
         private final Consumer<List<String>> processor;
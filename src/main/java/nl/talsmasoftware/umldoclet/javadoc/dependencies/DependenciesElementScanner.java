@@ -15,16 +15,27 @@
  */
 package nl.talsmasoftware.umldoclet.javadoc.dependencies;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jdk.javadoc.doclet.DocletEnvironment;
 import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.logging.Message;
+import nl.talsmasoftware.umldoclet.util.ConcurrencyUtils;
 
 import javax.lang.model.element.*;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.ElementScanner9;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -32,6 +43,9 @@ import static java.util.Objects.requireNonNull;
  * <p>
  * The packages of the dependencies are remembered and the result of the scan is a set of {@link PackageDependency}
  * objects. Duplicate dependencies will be automatically removed because the result is a set.
+ * <p>
+ * While scanning, dependencies are recorded in a compact graph of package ids,
+ * the {@linkplain PackageDependency} objects are only created when iterating the resulting set.
  *
  * @author Sjoerd Talsma
  */
@@ -39,20 +53,30 @@ public class DependenciesElementScanner extends ElementScanner9<Set<PackageDepen
 
     private final DocletEnvironment docEnv;
     private final Configuration config;
+    private final PackageDependencyGraph graph;
+    private final Map<PackageElement, Integer> packageIds = new HashMap<>();
+    private String lastFromPackage = null;
+    private int lastFromPackageId = -1;
 
     private String moduleName = null;
 
     /**
      * Constructor to create a new package dependencies scanner.
      * <p>
-     * The scanner is stateful, the set of package dependencies is collected in the (mutable) {@link #DEFAULT_VALUE} set.
+     * The scanner is stateful, the package dependencies are collected in a graph that is exposed
+     * as the (read-only) {@link #DEFAULT_VALUE} set.
      *
      * @param docEnv The doclet environment (required, non-null).
      *               This is needed to evalutate whether visited elements are included in the documentation.
      * @param config The doclet configuration (required, non-null).
      */
     public DependenciesElementScanner(DocletEnvironment docEnv, Configuration config) {
-        super(new LinkedHashSet<>());
+        this(docEnv, config, new PackageDependencyGraph());
+    }
+
+    private DependenciesElementScanner(DocletEnvironment docEnv, Configuration config, PackageDependencyGraph graph) {
+        super(graph.packageDependencies());
+        this.graph = graph;
         this.docEnv = requireNonNull(docEnv, "Doclet environemnt is <null>");
         this.config = requireNonNull(config, "Configuration is <null>");
     }
@@ -64,6 +88,117 @@ public class DependenciesElementScanner extends ElementScanner9<Set<PackageDepen
         return moduleName;
     }
 
+    /**
+     * Scans the included elements for package dependencies, scanning the included packages concurrently.
+     * <p>
+     * Javac elements are not thread-safe. Therefore the javadoc thread first determines which packages are included,
+     * lists the types in each package and completes them, before these type lists are scanned concurrently
+     * by the worker threads. The worker threads do not ask the javadoc model for the contents of a package.
+     * Each package is scanned into its own partial graph, the partial graphs are merged in the order of
+     * a single-threaded scan, so the result is the same regardless of the number of threads.
+     * Types of which the package is scanned are not scanned again.
+     *
+     * @param elements The included elements to scan.
+     * @param threads  The number of threads to scan with, {@code 1} to scan all elements on the calling thread.
+     * @return The found package dependencies.
+     */
+    public Set<PackageDependency> scan(Collection<? extends Element> elements, int threads) {
+        if (threads <= 1) return scan(elements, null);
+
+        final Set<PackageElement> includedPackages = new HashSet<>(ElementFilter.packagesIn(elements));
+        final Map<Element, PartialScan> partialScans = new LinkedHashMap<>();
+        for (Element element : elements) {
+            if (element instanceof ModuleElement) {
+                moduleName = ((ModuleElement) element).getQualifiedName().toString();
+                ElementFilter.packagesIn(element.getEnclosedElements()).forEach(pkg -> addScannedPackage(partialScans, pkg));
+            } else if (element instanceof PackageElement) {
+                addScannedPackage(partialScans, (PackageElement) element);
+            } else if (element instanceof TypeElement
+                    && !includedPackages.contains(PackageElementVisitor.INSTANCE.visit(element))
+                    && docEnv.isIncluded(element)) {
+                TypeCompleter.INSTANCE.scan(element);
+                partialScans.put(element, new PartialScan(singletonList(element), packageName(element)));
+            }
+        }
+
+        final List<PartialScan> scans = new ArrayList<>(partialScans.values());
+        final DependenciesElementScanner[] partialScanners = new DependenciesElementScanner[scans.size()];
+        ConcurrencyUtils.forEach(IntStream.range(0, scans.size()).boxed(), threads, "umldoclet-dependencies", i -> {
+            final DependenciesElementScanner partialScanner = new DependenciesElementScanner(docEnv, config, new PackageDependencyGraph());
+            partialScanner.scan(scans.get(i).elements, scans.get(i).fromPackage);
+            partialScanners[i] = partialScanner;
+        });
+        for (DependenciesElementScanner partialScanner : partialScanners) {
+            graph.addAll(partialScanner.graph);
+        }
+        return DEFAULT_VALUE;
+    }
+
+    private void addScannedPackage(Map<Element, PartialScan> partialScans, PackageElement pkg) {
+        if (partialScans.containsKey(pkg)) return;
+        String packageName = pkg.getQualifiedName().toString();
+        if (!docEnv.isIncluded(pkg)) {
+            config.logger().debug(Message.DEBUG_PACKAGE_VISITED_BUT_UNDOCUMENTED, packageName);
+        } else {
+            List<TypeElement> types = ElementFilter.typesIn(pkg.getEnclosedElements());
+            TypeCompleter.INSTANCE.scan(types, null);
+            partialScans.put(pkg, new PartialScan(types, packageName));
+        }
+    }
+
+    /**
+     * The elements to scan by a single worker thread and the package to scan them from.
+     */
+    private static final class PartialScan {
+        private final List<? extends Element> elements;
+        private final String fromPackage;
+
+        private PartialScan(List<? extends Element> elements, String fromPackage) {
+            this.elements = elements;
+            this.fromPackage = fromPackage;
+        }
+    }
+
+    /**
+     * Reads everything the dependencies scanner reads from the scanned types on the calling thread,
+     * so javac completes them before they are scanned concurrently.
+     */
+    private static final class TypeCompleter extends ElementScanner9<Void, Void> {
+        private static final TypeCompleter INSTANCE = new TypeCompleter();
+
+        @Override
+        public Void visitType(TypeElement type, Void parameter) {
+            type.getSuperclass();
+            type.getInterfaces();
+            return super.visitType(type, parameter);
+        }
+
+        @Override
+        public Void visitVariable(VariableElement variable, Void parameter) {
+            variable.asType();
+            return super.visitVariable(variable, parameter);
+        }
+
+        @Override
+        public Void visitExecutable(ExecutableElement executable, Void parameter) {
+            executable.getReturnType();
+            executable.getThrownTypes();
+            return super.visitExecutable(executable, parameter);
+        }
+
+        @Override
+        public Void visitTypeParameter(TypeParameterElement typeParameter, Void parameter) {
+            typeParameter.getGenericElement();
+            typeParameter.getBounds();
+            return super.visitTypeParameter(typeParameter, parameter);
+        }
+
+        @Override
+        public Void visitUnknown(Element unknown, Void parameter) {
+            return null;
+        }
+    }
+
     @Override
     public Set<PackageDependency> visitModule(ModuleElement visitedModule, String fromPackage) {
         moduleName = visitedModule.getQualifiedName().toString();
@@ -108,7 +243,7 @@ public class DependenciesElementScanner extends ElementScanner9<Set<PackageDepen
      */
     @Override
     public Set<PackageDependency> visitType(TypeElement visitedType, String fromPackage) {
-        String pkg = fromPackage == null && docEnv.isIncluded(visitedType) ? PackageElementVisitor.INSTANCE.visit(visitedType) : fromPackage;
+        String pkg = fromPackage == null && docEnv.isIncluded(visitedType) ? packageName(visitedType) : fromPackage;
         addDependency(pkg, visitedType.getSuperclass());
         visitedType.getInterfaces().forEach(implemented -> addDependency(pkg, implemented));
         // TODO: figure out if there is a way to add the class' imports dependencies!
@@ -180,20 +315,57 @@ public class DependenciesElementScanner extends ElementScanner9<Set<PackageDepen
         return DEFAULT_VALUE;
     }
 
+    private static String packageName(Element element) {
+        PackageElement packageElement = PackageElementVisitor.INSTANCE.visit(element);
+        return packageElement == null ? null : packageElement.getQualifiedName().toString();
+    }
+
     private void addDependency(String fromPackage, TypeMirror toType) {
-        String toPackage = PackageTypeVisitor.INSTANCE.visit(toType);
-        addDependency(fromPackage, toPackage);
+        addDependency(fromPackage, PackageTypeVisitor.INSTANCE.visit(toType));
     }
 
     private void addDependency(String fromPackage, Element toElement) {
-        String toPackage = PackageElementVisitor.INSTANCE.visit(toElement);
-        addDependency(fromPackage, toPackage);
+        addDependency(fromPackage, PackageElementVisitor.INSTANCE.visit(toElement));
     }
 
-    private void addDependency(String fromPackage, String toPackage) {
-        if (fromPackage != null && toPackage != null && !fromPackage.equals(toPackage)) {
-            DEFAULT_VALUE.add(new PackageDependency(fromPackage, toPackage));
+    private void addDependency(String fromPackage, PackageElement toPackage) {
+        if (fromPackage != null && toPackage != null) {
+            graph.addDependency(packageId(fromPackage), packageId(toPackage));
+        }
+    }
+
+    /**
+     * The id of the 'from' package in the dependency graph.
+     * <p>
+     * All elements of a package are scanned with the same 'from' package, so the last id is remembered.
+     *
+     * @param fromPackage The qualified name of the 'from' package.
+     * @return The id of the package in the dependency graph.
+     */
+    @SuppressFBWarnings(value = "ES_COMPARING_STRINGS_WITH_EQ", justification = "Identity is sufficient for this cache.")
+    private int packageId(String fromPackage) {
+        if (fromPackage != lastFromPackage) {
+            lastFromPackageId = graph.packageId(fromPackage);
+            lastFromPackage = fromPackage;
+        }
+        return lastFromPackageId;
+    }
+
+    /**
+     * The id of a package in the dependency graph.
+     * <p>
+     * Ids are remembered per package element, so the qualified name of each package is only needed once.
+     *
+     * @param packageElement The package element.
+     * @return The id of the package in the dependency graph.
+     */
+    private int packageId(PackageElement packageElement) {
+        Integer id = packageIds.get(packageElement);
+        if (id == null) {
+            id = graph.packageId(packageElement.getQualifiedName().toString());
+            packageIds.put(packageElement, id);
         }
+        return id;
     }
 
 }
@@ -16,11 +16,6 @@
 package nl.talsmasoftware.umldoclet.javadoc.dependencies;
 
 import java.util.AbstractList;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.RandomAccess;
 import java.util.Set;
 
@@ -39,6 +34,14 @@ import static java.util.stream.Collectors.joining;
  */
 public class PackageDependencyCycle extends AbstractList<PackageDependency> implements RandomAccess {
 
+    /**
+     * The maximum number of cycles detected by default.
+     * <p>
+     * The number of cycles can grow exponentially with the number of dependencies between packages,
+     * reporting the first cycles is sufficient to point out the problem.
+     */
+    public static final int DEFAULT_MAX_CYCLES = 100;
+
     private final PackageDependency[] cycle;
 
     /**
@@ -66,50 +69,31 @@ public class PackageDependencyCycle extends AbstractList<PackageDependency> impl
     }
 
     /**
-     * Detect cycles in a collection of dependencies.
-     *
-     * <p>
-     * First the collection of dependencies is converted to a list of dependency <em>chains</em>.
-     * Next, the dependency chains are selected from all chains and returned as a new set.
+     * Detect cycles in a collection of dependencies, reporting at most {@value #DEFAULT_MAX_CYCLES} cycles.
      *
      * @param dependencies The package dependencies to detect dependency cycles from.
-     * @return A set with all found dependency cycles.
+     * @return A set with the found dependency cycles.
+     * @see #detectCycles(Iterable, int)
      */
     public static Set<PackageDependencyCycle> detectCycles(Iterable<PackageDependency> dependencies) {
-        List<PackageDependency[]> chains = new LinkedList<>();
-        for (PackageDependency dependency : dependencies) {
-            List<PackageDependency[]> newChains = new ArrayList<>();
-            for (PackageDependency[] chain : chains) {
-                if (dependency.fromPackage.equals(lastPackageName(chain))) {
-                    PackageDependency[] longerChain = growChain(chain, dependency);
-                    if (longerChain != null) newChains.add(longerChain);
-                }
-            }
-            chains.addAll(newChains);
-            chains.add(new PackageDependency[]{dependency});
-        }
-        Set<PackageDependencyCycle> cycles = new LinkedHashSet<>();
-        for (Iterator<PackageDependency[]> it = chains.iterator(); it.hasNext(); it.remove()) {
-            PackageDependency[] chain = it.next();
-            if (chain.length > 1 && chain[0].fromPackage.equals(lastPackageName(chain))) {
-                cycles.add(new PackageDependencyCycle(chain));
-            }
-        }
-        return cycles;
+        return detectCycles(dependencies, DEFAULT_MAX_CYCLES);
     }
 
-    private static String lastPackageName(PackageDependency[] chain) {
-        return chain.length == 0 ? null : chain[chain.length - 1].toPackage;
-    }
-
-    private static PackageDependency[] growChain(PackageDependency[] chain, PackageDependency dependency) {
-        PackageDependency[] longerChain = new PackageDependency[chain.length + 1];
-        for (int i = 0; i < chain.length; i++) {
-            if (dependency.equals(chain[i])) return null;
-            else longerChain[i] = chain[i];
-        }
-        longerChain[chain.length] = dependency;
-        return longerChain;
+    /**
+     * Detect cycles in a collection of dependencies.
+     *
+     * <p>
+     * First the strongly connected components of the package dependency graph are determined,
+     * since only packages within the same component can be part of a cycle.
+     * Next, the elementary cycles within each component are enumerated until the maximum number of cycles is found.
+     * Each cycle is reported once, starting from the package that occurs first in the dependencies.
+     *
+     * @param dependencies The package dependencies to detect dependency cycles from.
+     * @param maxCycles    The maximum number of cycles to detect.
+     * @return A set with the found dependency cycles.
+     */
+    public static Set<PackageDependencyCycle> detectCycles(Iterable<PackageDependency> dependencies, int maxCycles) {
+        return PackageDependencyGraph.of(dependencies).elementaryCycles(maxCycles);
     }
 
     @Override
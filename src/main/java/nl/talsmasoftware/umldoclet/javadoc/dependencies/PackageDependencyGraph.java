@@ -0,0 +1,394 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc.dependencies;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Graph of package dependencies.
+ *
+ * <p>
+ * Packages are identified by an {@code int} id, assigned in the order in which they were first added.
+ * The dependencies of each package are kept in a {@link BitSet} indexed by the ids of the depended-upon packages,
+ * so adding a dependency does not allocate any objects once both packages are known.
+ * Dependencies of a package on itself are ignored.
+ *
+ * <p>
+ * The dependencies are also available as a {@linkplain #packageDependencies() set of package dependencies}
+ * in the order they were added. The {@link PackageDependency} objects are only created when iterating this set.
+ *
+ * @author Sjoerd Talsma
+ */
+final class PackageDependencyGraph {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> packageNames = new ArrayList<>();
+    private final List<BitSet> dependencies = new ArrayList<>();
+    private final PackageDependencies packageDependencies = new PackageDependencies();
+    private int[] addedDependencies = new int[32]; // pairs of 'from' and 'to' ids, in the order they were added
+    private int dependencyCount = 0;
+
+    PackageDependencyGraph() {
+    }
+
+    PackageDependencyGraph(Iterable<PackageDependency> packageDependencies) {
+        packageDependencies.forEach(dependency -> addDependency(dependency.fromPackage, dependency.toPackage));
+    }
+
+    /**
+     * @return The number of packages in the graph.
+     */
+    int size() {
+        return packageNames.size();
+    }
+
+    /**
+     * The id of a package, adding the package to the graph if necessary.
+     *
+     * @param packageName The qualified name of the package.
+     * @return The id of the package.
+     */
+    int packageId(String packageName) {
+        Integer id = ids.get(packageName);
+        if (id == null) {
+            id = packageNames.size();
+            ids.put(packageName, id);
+            packageNames.add(packageName);
+            dependencies.add(new BitSet());
+        }
+        return id;
+    }
+
+    String packageName(int id) {
+        return packageNames.get(id);
+    }
+
+    /**
+     * Adds a dependency between two packages.
+     *
+     * @param fromPackage The package that has a dependency on the other package.
+     * @param toPackage   The package that is depended upon.
+     * @return {@code true} if the dependency was added, {@code false} if it was already present or a self-dependency.
+     */
+    boolean addDependency(String fromPackage, String toPackage) {
+        return addDependency(packageId(fromPackage), packageId(toPackage));
+    }
+
+    boolean addDependency(int from, int to) {
+        if (from == to) return false;
+        BitSet targets = dependencies.get(from);
+        if (targets.get(to)) return false;
+        targets.set(to);
+        if (2 * dependencyCount == addedDependencies.length) {
+            addedDependencies = Arrays.copyOf(addedDependencies, 2 * addedDependencies.length);
+        }
+        addedDependencies[2 * dependencyCount] = from;
+        addedDependencies[2 * dependencyCount + 1] = to;
+        dependencyCount++;
+        return true;
+    }
+
+    /**
+     * Adds the packages and dependencies of another graph to this graph.
+     * <p>
+     * The packages and dependencies are added in the order they were added to the other graph,
+     * so merging partial graphs in order results in the same graph as adding all dependencies to one graph.
+     *
+     * @param other The graph to add to this graph.
+     */
+    void addAll(PackageDependencyGraph other) {
+        final int[] otherIds = new int[other.size()];
+        for (int id = 0; id < otherIds.length; id++) {
+            otherIds[id] = packageId(other.packageName(id));
+        }
+        for (int i = 0; i < other.dependencyCount; i++) {
+            addDependency(otherIds[other.addedDependencies[2 * i]], otherIds[other.addedDependencies[2 * i + 1]]);
+        }
+    }
+
+    /**
+     * The dependencies in this graph, in the order they were added.
+     * <p>
+     * The returned set is an unmodifiable view; dependencies added to the graph later are also contained in it.
+     *
+     * @return The package dependencies in this graph.
+     */
+    Set<PackageDependency> packageDependencies() {
+        return packageDependencies;
+    }
+
+    /**
+     * The graph of a collection of dependencies.
+     *
+     * @param dependencies The package dependencies.
+     * @return The graph containing the dependencies, reusing the graph if the dependencies are a view of a graph.
+     */
+    static PackageDependencyGraph of(Iterable<PackageDependency> dependencies) {
+        return dependencies instanceof PackageDependencies
+                ? ((PackageDependencies) dependencies).graph()
+                : new PackageDependencyGraph(dependencies);
+    }
+
+    /**
+     * Finds the strongly connected components of the graph using Tarjan's algorithm.
+     *
+     * <p>
+     * Every cycle in the graph is contained in a single strongly connected component.
+     * Packages that are not part of any cycle form a component of their own.
+     *
+     * @return The strongly connected components, as sets of package ids.
+     */
+    List<BitSet> stronglyConnectedComponents() {
+        BitSet all = new BitSet(size());
+        all.set(0, size());
+        return new Tarjan(all).componentsFrom(all);
+    }
+
+    /**
+     * Finds the elementary cycles in the graph using Johnson's algorithm, up to a maximum number of cycles.
+     *
+     * <p>
+     * Each cycle is reported once, starting with the package in the cycle that was added to the graph first.
+     * Cycles are enumerated per strongly connected component,
+     * so packages that are not part of any cycle are never searched.
+     *
+     * @param maxCycles The maximum number of cycles to find.
+     * @return The found cycles.
+     */
+    Set<PackageDependencyCycle> elementaryCycles(int maxCycles) {
+        final Set<PackageDependencyCycle> cycles = new LinkedHashSet<>();
+        if (maxCycles <= 0) return cycles;
+        final BitSet cyclic = new BitSet(size());
+        for (BitSet component : stronglyConnectedComponents()) {
+            if (component.cardinality() > 1) cyclic.or(component);
+        }
+        for (int start = cyclic.nextSetBit(0); start >= 0 && cycles.size() < maxCycles; start = cyclic.nextSetBit(start + 1)) {
+            // Only look for cycles through 'start' among the packages that were not used as start before.
+            final BitSet remaining = cyclic.get(0, size());
+            remaining.clear(0, start);
+            final List<BitSet> components = new Tarjan(remaining).componentsFrom(singleton(start));
+            final BitSet component = components.get(components.size() - 1); // the root component contains 'start'
+            if (component.cardinality() > 1) {
+                new Johnson(start, component, cycles, maxCycles).circuit(start);
+            }
+        }
+        return cycles;
+    }
+
+    private static BitSet singleton(int id) {
+        BitSet singleton = new BitSet(id + 1);
+        singleton.set(id);
+        return singleton;
+    }
+
+    private final class PackageDependencies extends AbstractSet<PackageDependency> {
+        private PackageDependencyGraph graph() {
+            return PackageDependencyGraph.this;
+        }
+
+        @Override
+        public int size() {
+            return dependencyCount;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof PackageDependency)) return false;
+            final Integer from = ids.get(((PackageDependency) o).fromPackage);
+            final Integer to = ids.get(((PackageDependency) o).toPackage);
+            return from != null && to != null && dependencies.get(from).get(to);
+        }
+
+        @Override
+        public Iterator<PackageDependency> iterator() {
+            return new Iterator<PackageDependency>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < dependencyCount;
+                }
+
+                @Override
+                public PackageDependency next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    final int from = addedDependencies[2 * next];
+                    final int to = addedDependencies[2 * next + 1];
+                    next++;
+                    return new PackageDependency(packageName(from), packageName(to));
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterative implementation of Tarjan's strongly connected components algorithm,
+     * restricted to a subset of the packages.
+     */
+    private final class Tarjan {
+        private final BitSet vertices;
+        private final int[] index;
+        private final int[] lowlink;
+        private final BitSet onStack = new BitSet();
+        private final int[] stack;
+        private int stackSize = 0;
+        private int counter = 0;
+
+        private Tarjan(BitSet vertices) {
+            this.vertices = vertices;
+            this.index = new int[size()];
+            this.lowlink = new int[size()];
+            this.stack = new int[size()];
+            Arrays.fill(index, -1);
+        }
+
+        private List<BitSet> componentsFrom(BitSet roots) {
+            final List<BitSet> components = new ArrayList<>();
+            final int[] callStack = new int[size()];
+            final int[] nextSuccessor = new int[size()];
+            for (int root = roots.nextSetBit(0); root >= 0; root = roots.nextSetBit(root + 1)) {
+                if (index[root] >= 0) continue;
+                int depth = 0;
+                callStack[depth++] = visit(root, nextSuccessor);
+                while (depth > 0) {
+                    final int v = callStack[depth - 1];
+                    final int w = nextSuccessor(v, nextSuccessor);
+                    if (w >= 0) {
+                        if (index[w] < 0) {
+                            callStack[depth++] = visit(w, nextSuccessor);
+                        } else if (onStack.get(w)) {
+                            lowlink[v] = Math.min(lowlink[v], index[w]);
+                        }
+                    } else {
+                        depth--;
+                        if (depth > 0) {
+                            final int parent = callStack[depth - 1];
+                            lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+                        }
+                        if (lowlink[v] == index[v]) components.add(popComponent(v));
+                    }
+                }
+            }
+            return components;
+        }
+
+        private int visit(int v, int[] nextSuccessor) {
+            index[v] = lowlink[v] = counter++;
+            stack[stackSize++] = v;
+            onStack.set(v);
+            nextSuccessor[v] = 0;
+            return v;
+        }
+
+        private int nextSuccessor(int v, int[] nextSuccessor) {
+            final BitSet successors = dependencies.get(v);
+            int w = successors.nextSetBit(nextSuccessor[v]);
+            while (w >= 0 && !vertices.get(w)) w = successors.nextSetBit(w + 1);
+            nextSuccessor[v] = w < 0 ? Integer.MAX_VALUE : w + 1;
+            return w;
+        }
+
+        private BitSet popComponent(int root) {
+            final BitSet component = new BitSet();
+            int w;
+            do {
+                w = stack[--stackSize];
+                onStack.clear(w);
+                component.set(w);
+            } while (w != root);
+            return component;
+        }
+    }
+
+    /**
+     * Johnson's algorithm enumerating the elementary cycles through a start package within its component.
+     */
+    private final class Johnson {
+        private final int start;
+        private final BitSet component;
+        private final Set<PackageDependencyCycle> cycles;
+        private final int maxCycles;
+        private final BitSet blocked = new BitSet();
+        private final Map<Integer, BitSet> blockedBy = new HashMap<>();
+        private final int[] path;
+        private int pathLength = 0;
+
+        private Johnson(int start, BitSet component, Set<PackageDependencyCycle> cycles, int maxCycles) {
+            this.start = start;
+            this.component = component;
+            this.cycles = cycles;
+            this.maxCycles = maxCycles;
+            this.path = new int[component.cardinality()];
+        }
+
+        private boolean circuit(int v) {
+            boolean found = false;
+            path[pathLength++] = v;
+            blocked.set(v);
+            final BitSet successors = dependencies.get(v);
+            for (int w = successors.nextSetBit(0); w >= 0 && cycles.size() < maxCycles; w = successors.nextSetBit(w + 1)) {
+                if (!component.get(w)) continue;
+                if (w == start) {
+                    cycles.add(currentCycle());
+                    found = true;
+                } else if (!blocked.get(w) && circuit(w)) {
+                    found = true;
+                }
+            }
+            if (found) {
+                unblock(v);
+            } else {
+                for (int w = successors.nextSetBit(0); w >= 0; w = successors.nextSetBit(w + 1)) {
+                    if (component.get(w)) blockedBy.computeIfAbsent(w, k -> new BitSet()).set(v);
+                }
+            }
+            pathLength--;
+            return found;
+        }
+
+        private void unblock(int v) {
+            final BitSet toUnblock = singleton(v);
+            for (int u = toUnblock.nextSetBit(0); u >= 0; u = toUnblock.nextSetBit(0)) {
+                toUnblock.clear(u);
+                blocked.clear(u);
+                final BitSet dependents = blockedBy.remove(u);
+                if (dependents != null) {
+                    for (int w = dependents.nextSetBit(0); w >= 0; w = dependents.nextSetBit(w + 1)) {
+                        if (blocked.get(w)) toUnblock.set(w);
+                    }
+                }
+            }
+        }
+
+        private PackageDependencyCycle currentCycle() {
+            final PackageDependency[] cycle = new PackageDependency[pathLength];
+            for (int i = 0; i < pathLength; i++) {
+                cycle[i] = new PackageDependency(packageName(path[i]), packageName(path[(i + 1) % pathLength]));
+            }
+            return new PackageDependencyCycle(cycle);
+        }
+    }
+}
@@ -20,27 +20,26 @@ import javax.lang.model.element.PackageElement;
 import javax.lang.model.util.SimpleElementVisitor9;
 
 /**
- * Looks up the String the visited element belongs to.
+ * Looks up the package the visited element belongs to.
  *
  * <p>
- * Returns {@code} null for unknown elements or elements not in any String (such as modules etc).
+ * Returns {@code null} for unknown elements or elements not in any package (such as modules etc).
  *
  * @author Sjoerd Talsma
  */
-final class PackageElementVisitor extends SimpleElementVisitor9<String, Void> {
+final class PackageElementVisitor extends SimpleElementVisitor9<PackageElement, Void> {
     static final PackageElementVisitor INSTANCE = new PackageElementVisitor();
 
     /**
-     * When visiting a package element, we found the String we are looking for, so return the qualified name
-     * as a new {@linkplain String} instance.
+     * When visiting a package element, we found the package we are looking for.
      *
      * @param e     The package element visited.
      * @param aVoid ignored
-     * @return A new String object containing the qualified name of the package element.
+     * @return The visited package element.
      */
     @Override
-    public String visitPackage(PackageElement e, Void aVoid) {
-        return e.getQualifiedName().toString();
+    public PackageElement visitPackage(PackageElement e, Void aVoid) {
+        return e;
     }
 
     /**
@@ -52,7 +51,7 @@ final class PackageElementVisitor extends SimpleElementVisitor9<String, Void> {
      * or {@code null} if there is no enclosing element (e.g. for a module element).
      */
     @Override
-    public String defaultAction(Element e, Void aVoid) {
+    public PackageElement defaultAction(Element e, Void aVoid) {
         Element enclosingElement = e.getEnclosingElement();
         return enclosingElement == null ? null : visit(enclosingElement, aVoid);
     }
@@ -66,7 +65,7 @@ final class PackageElementVisitor extends SimpleElementVisitor9<String, Void> {
      * @see #defaultAction(Element, Void)
      */
     @Override
-    public String visitUnknown(Element e, Void aVoid) {
+    public PackageElement visitUnknown(Element e, Void aVoid) {
         return defaultAction(e, aVoid);
     }
 
@@ -15,6 +15,7 @@
  */
 package nl.talsmasoftware.umldoclet.javadoc.dependencies;
 
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ErrorType;
@@ -23,38 +24,38 @@ import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.SimpleTypeVisitor9;
 
-class PackageTypeVisitor extends SimpleTypeVisitor9<String, Void> {
+class PackageTypeVisitor extends SimpleTypeVisitor9<PackageElement, Void> {
     static final PackageTypeVisitor INSTANCE = new PackageTypeVisitor();
 
     @Override
-    public String visitUnknown(TypeMirror t, Void aVoid) {
+    public PackageElement visitUnknown(TypeMirror t, Void aVoid) {
         return null;
     }
 
     @Override
-    public String visitArray(ArrayType t, Void aVoid) {
+    public PackageElement visitArray(ArrayType t, Void aVoid) {
         return this.visit(t.getComponentType(), aVoid);
     }
 
     @Override
-    public String visitDeclared(DeclaredType t, Void aVoid) {
+    public PackageElement visitDeclared(DeclaredType t, Void aVoid) {
         return PackageElementVisitor.INSTANCE.visit(t.asElement().getEnclosingElement(), aVoid);
     }
 
     @Override
-    public String visitError(ErrorType t, Void aVoid) {
+    public PackageElement visitError(ErrorType t, Void aVoid) {
         return PackageElementVisitor.INSTANCE.visit(t.asElement().getEnclosingElement(), aVoid);
     }
 
     @Override
-    public String visitWildcard(WildcardType t, Void aVoid) {
+    public PackageElement visitWildcard(WildcardType t, Void aVoid) {
         TypeMirror bound = t.getExtendsBound();
         if (bound == null) bound = t.getSuperBound();
         return bound == null ? null : this.visit(bound, aVoid);
     }
 
     @Override
-    public String visitExecutable(ExecutableType t, Void aVoid) {
+    public PackageElement visitExecutable(ExecutableType t, Void aVoid) {
         TypeMirror receiverType = t.getReceiverType();
         return receiverType == null ? null : this.visit(receiverType);
     }
@@ -42,12 +42,16 @@ public enum Message {
     DEBUG_CANNOT_READ_ELEMENT_LIST,
     DEBUG_LIVE_PACKAGE_URL_NOT_FOUND,
     DEBUG_PACKAGE_VISITED_BUT_UNDOCUMENTED,
+    DEBUG_RESTORED_FROM_CACHE,
+    DEBUG_POSTPROCESSED_HTML_FILES,
     INFO_GENERATING_FILE,
     INFO_ADD_DIAGRAM_TO_FILE,
+    INFO_PACKAGE_DEPENDENCY_CYCLES_LIMITED,
     WARNING_UNRECOGNIZED_IMAGE_FORMAT,
     WARNING_CANNOT_READ_PACKAGE_LIST,
     WARNING_UNKNOWN_VISIBILITY,
     WARNING_PACKAGE_DEPENDENCY_CYCLES,
+    WARNING_CANNOT_STORE_IN_CACHE,
     ERROR_UNSUPPORTED_DELEGATE_DOCLET,
     ERROR_UNANTICIPATED_ERROR_GENERATING_UML,
     ERROR_UNANTICIPATED_ERROR_GENERATING_DIAGRAMS,
@@ -54,6 +54,22 @@ public class IndentingPrintWriter extends PrintWriter {
                 : new IndentingPrintWriter(delegate, indentation);
     }
 
+    /**
+     * Returns an indenting printwriter around the given {@code delegate} that must only be used by a single thread.
+     * If the {@code delegate} printwriter is already an indenting printwriter, it will simply be returned as-is.
+     *
+     * @param delegate    The delegate to turn into an indenting printwriter.
+     * @param indentation The indentation to use for the indenting printwriter
+     *                    (optional, specify <code>null</code> to use the default indentation).
+     * @return The indenting delegate writer.
+     * @see IndentingWriter#wrapUnsynchronized(Appendable, Indentation)
+     */
+    public static IndentingPrintWriter wrapUnsynchronized(Appendable delegate, Indentation indentation) {
+        return delegate instanceof IndentingPrintWriter
+                ? ((IndentingPrintWriter) delegate).withIndentation(indentation)
+                : new IndentingPrintWriter(IndentingWriter.wrapUnsynchronized(delegate, indentation), indentation);
+    }
+
     protected IndentingWriter getDelegate() {
         return (IndentingWriter) super.out;
     }
@@ -18,7 +18,7 @@ package nl.talsmasoftware.umldoclet.rendering.indent;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.nio.CharBuffer;
 
 import static java.lang.Character.isWhitespace;
 import static java.util.Objects.requireNonNull;
@@ -27,6 +27,9 @@ import static java.util.Objects.requireNonNull;
  * Writer implementation that will indent each new line with a specified number of whitespace
  * characters (four by default).
  * The writing itself can be delegated to any other {@link Writer} implementation.
+ * <p>
+ * Writes are synchronized on the delegate, unless the writer was created for use by a single thread
+ * with {@link #wrapUnsynchronized(Appendable, Indentation)}.
  *
  * @author Sjoerd Talsma
  */
@@ -34,21 +37,24 @@ public class IndentingWriter extends Writer {
 
     private final Appendable delegate;
     private final Indentation indentation;
+    private final boolean synchronizing;
 
-    private final AtomicBoolean addWhitespace = new AtomicBoolean(false);
-    private char lastWritten = '\n';
+    private boolean addWhitespace;
+    private char lastWritten;
 
     protected IndentingWriter(Appendable delegate, Indentation indentation) {
-        this(delegate, indentation, '\n', false);
+        this(delegate, indentation, true, '\n', false);
         // maybe attempt to support extraction of 'lastWritten' from some types of writers?
     }
 
-    private IndentingWriter(Appendable delegate, Indentation indentation, char lastWritten, boolean addWhitespace) {
+    private IndentingWriter(Appendable delegate, Indentation indentation, boolean synchronizing,
+                            char lastWritten, boolean addWhitespace) {
         super(requireNonNull(delegate, "Delegate writer is required."));
         this.delegate = delegate;
         this.indentation = indentation == null ? Indentation.DEFAULT : indentation;
+        this.synchronizing = synchronizing;
         this.lastWritten = lastWritten;
-        this.addWhitespace.set(addWhitespace);
+        this.addWhitespace = addWhitespace;
     }
 
     /**
@@ -70,6 +76,26 @@ public class IndentingWriter extends Writer {
                 : new IndentingWriter(delegate, indentation);
     }
 
+    /**
+     * Returns an indenting writer around the given <code>delegate</code> that must only be used by a single thread.
+     * <p>
+     * This writer does not synchronize its writes and appends runs of characters between line breaks
+     * to the delegate at once, so it is the better choice for rendering a diagram from one thread.
+     * If the <code>delegate</code> writer is already an indenting writer, it will simply be returned
+     * {@link #withIndentation(Indentation) with the specified indentation}.
+     *
+     * @param delegate    The delegate to turn into an indenting writer.
+     * @param indentation The indentation to use for the indenting writer
+     *                    (optional, specify <code>null</code> to use the default indentation).
+     * @return The indenting delegate writer.
+     * @see #wrap(Appendable, Indentation)
+     */
+    public static IndentingWriter wrapUnsynchronized(Appendable delegate, Indentation indentation) {
+        return delegate instanceof IndentingWriter
+                ? ((IndentingWriter) delegate).withIndentation(indentation)
+                : new IndentingWriter(delegate, indentation, false, '\n', false);
+    }
+
     /**
      * Returns an indenting writer with the new indentation.
      * <p>
@@ -81,7 +107,7 @@ public class IndentingWriter extends Writer {
      */
     public IndentingWriter withIndentation(Indentation newIndentation) {
         return newIndentation == null || this.indentation.equals(newIndentation) ? this
-                : new IndentingWriter(delegate, newIndentation, lastWritten, addWhitespace.get());
+                : new IndentingWriter(delegate, newIndentation, synchronizing, lastWritten, addWhitespace);
     }
 
     protected Indentation getIndentation() {
@@ -106,7 +132,10 @@ public class IndentingWriter extends Writer {
      * @return Reference to this writer for chaining purposes.
      */
     public IndentingWriter whitespace() {
-        addWhitespace.set(true);
+        if (synchronizing) synchronized (lock) {
+            addWhitespace = true;
+        }
+        else addWhitespace = true;
         return this;
     }
 
@@ -120,22 +149,109 @@ public class IndentingWriter extends Writer {
         return ch == '\r' || ch == '\n';
     }
 
+    @Override
+    public void write(int c) throws IOException {
+        if (synchronizing) synchronized (lock) {
+            writeIndented((char) c);
+        }
+        else writeIndented((char) c);
+    }
+
     @Override
     public void write(char[] cbuf, int off, int len) throws IOException {
         if (len > 0) {
-            char ch = cbuf[off];
-            synchronized (lock) {
-                if (addWhitespace.compareAndSet(true, false) && !isWhitespace(lastWritten) && !isWhitespace(ch)) {
-                    delegate.append(' ');
-                    lastWritten = ' ';
-                }
-                for (int i = 0; i < len; i++) {
-                    ch = cbuf[off + i];
-                    if (isEol(lastWritten) && !isEol(ch)) delegate.append(indentation);
-                    delegate.append(ch);
-                    lastWritten = ch;
-                }
+            if (synchronizing) synchronized (lock) {
+                writeIndented(CharBuffer.wrap(cbuf), off, off + len);
+            }
+            else writeIndented(CharBuffer.wrap(cbuf), off, off + len);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (len > 0) {
+            if (synchronizing) synchronized (lock) {
+                writeIndented(str, off, off + len);
+            }
+            else writeIndented(str, off, off + len);
+        }
+    }
+
+    @Override
+    public IndentingWriter append(CharSequence csq) throws IOException {
+        if (csq == null) csq = "null";
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public IndentingWriter append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) csq = "null";
+        if (start < 0 || start > end || end > csq.length()) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + csq.length());
+        }
+        if (start < end) {
+            if (synchronizing) synchronized (lock) {
+                writeIndented(csq, start, end);
             }
+            else writeIndented(csq, start, end);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the characters, indenting each line.
+     * <p>
+     * The characters are appended to the delegate in runs up to and including the next line break(s),
+     * the indentation is appended before each character that starts a new line.
+     *
+     * @param csq   The characters to write.
+     * @param start The index of the first character to write.
+     * @param end   The index after the last character to write (must be greater than {@code start}).
+     * @throws IOException if the delegate could not be appended to.
+     */
+    private void writeIndented(CharSequence csq, int start, int end) throws IOException {
+        writePendingWhitespace(csq.charAt(start));
+        while (start < end) {
+            if (isEol(lastWritten) && !isEol(csq.charAt(start))) delegate.append(indentation);
+            int runEnd = start;
+            while (runEnd < end && !isEol(csq.charAt(runEnd))) runEnd++;
+            while (runEnd < end && isEol(csq.charAt(runEnd))) runEnd++;
+            appendRun(csq, start, runEnd);
+            lastWritten = csq.charAt(runEnd - 1);
+            start = runEnd;
+        }
+    }
+
+    private void writeIndented(char ch) throws IOException {
+        writePendingWhitespace(ch);
+        if (isEol(lastWritten) && !isEol(ch)) delegate.append(indentation);
+        delegate.append(ch);
+        lastWritten = ch;
+    }
+
+    private void writePendingWhitespace(char next) throws IOException {
+        if (addWhitespace) {
+            addWhitespace = false;
+            if (!isWhitespace(lastWritten) && !isWhitespace(next)) {
+                delegate.append(' ');
+                lastWritten = ' ';
+            }
+        }
+    }
+
+    private void appendRun(CharSequence csq, int start, int end) throws IOException {
+        if (delegate instanceof Writer && csq instanceof String) {
+            ((Writer) delegate).write((String) csq, start, end - start);
+        } else if (csq instanceof CharBuffer && ((CharBuffer) csq).hasArray()
+                && (delegate instanceof Writer || delegate instanceof StringBuilder)) {
+            CharBuffer buffer = (CharBuffer) csq;
+            int offset = buffer.arrayOffset() + buffer.position() + start;
+            if (delegate instanceof Writer) ((Writer) delegate).write(buffer.array(), offset, end - start);
+            else ((StringBuilder) delegate).append(buffer.array(), offset, end - start);
+        } else if (end - start == 1) {
+            delegate.append(csq.charAt(start));
+        } else {
+            delegate.append(csq, start, end);
         }
     }
 
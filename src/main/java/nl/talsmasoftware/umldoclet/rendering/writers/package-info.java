@@ -23,5 +23,9 @@
  * access to a {@linkplain java.lang.StringBuffer} of everything that has been written so-far.
  * This class is concurrently <strong>unsafe</strong>; i.e. should not be used from multiple threads.
  * </ul>
+ * <p>
+ * The doclet itself renders diagram sources into a {@linkplain java.lang.StringBuilder} instead.
+ * These writers are kept as general-purpose utilities, and because this package is the
+ * <em>simple package example</em> linked from the {@linkplain nl.talsmasoftware.umldoclet} documentation.
  */
 package nl.talsmasoftware.umldoclet.rendering.writers;
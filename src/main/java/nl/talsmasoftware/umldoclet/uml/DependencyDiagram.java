@@ -22,6 +22,7 @@ import java.io.File;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -34,6 +35,7 @@ public class DependencyDiagram extends Diagram {
     private String moduleName;
     private String pumlFileName;
     private File pumlFile = null;
+    private List<UMLNode> includedChildren = null;
 
     public DependencyDiagram(Configuration config, String moduleName, String pumlFileName) {
         super(config);
@@ -43,9 +45,21 @@ public class DependencyDiagram extends Diagram {
 
     @Override
     public List<UMLNode> getChildren() {
-        List<UMLNode> children = super.getChildren();
-        List<UMLNode> exclusionFiltered = children.stream().filter(this::isIncludedChild).collect(toList());
-        return exclusionFiltered.isEmpty() ? children : exclusionFiltered;
+        if (includedChildren == null) {
+            final List<String> excludedPackages = getConfiguration().excludedPackageDependencies();
+            List<UMLNode> children = super.getChildren();
+            List<UMLNode> exclusionFiltered = children.stream()
+                    .filter(child -> isIncludedChild(excludedPackages, child))
+                    .collect(toList());
+            includedChildren = exclusionFiltered.isEmpty() ? children : unmodifiableList(exclusionFiltered);
+        }
+        return includedChildren;
+    }
+
+    @Override
+    protected void childrenChanged() {
+        super.childrenChanged();
+        includedChildren = null;
     }
 
     public void addPackageDependency(String fromPackage, String toPackage) {
@@ -57,15 +71,15 @@ public class DependencyDiagram extends Diagram {
         }
     }
 
-    private boolean isExcludedPackage(String toPackage) {
-        return getConfiguration().excludedPackageDependencies().stream()
+    private static boolean isExcludedPackage(List<String> excludedPackages, String toPackage) {
+        return excludedPackages.stream()
                 .anyMatch(excluded -> excluded.equals(toPackage)
                         || toPackage.startsWith(dotSuffixed(excluded))
                         || ("unnamed".equals(excluded) && toPackage.isEmpty()));
     }
 
-    private boolean isIncludedChild(UMLNode child) {
-        return child instanceof Reference && !isExcludedPackage(((Reference) child).to.toString());
+    private static boolean isIncludedChild(List<String> excludedPackages, UMLNode child) {
+        return child instanceof Reference && !isExcludedPackage(excludedPackages, ((Reference) child).to.toString());
     }
 
     @Override
@@ -20,18 +20,30 @@ import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
 import nl.talsmasoftware.umldoclet.logging.Message;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
-import nl.talsmasoftware.umldoclet.rendering.writers.StringBufferingWriter;
+import nl.talsmasoftware.umldoclet.uml.plantuml.DiagramCache;
 import nl.talsmasoftware.umldoclet.uml.plantuml.PlantumlGenerator;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static nl.talsmasoftware.umldoclet.util.FileUtils.ensureParentDir;
@@ -42,16 +54,20 @@ import static nl.talsmasoftware.umldoclet.util.FileUtils.withoutExtension;
  * Abstract UML Diagram class.
  */
 public abstract class Diagram extends UMLNode {
+    /**
+     * Placeholder for file links while rendering a diagram template ('noncharacter' U+FFFF).
+     */
+    private static final String FILE_LINK_PLACEHOLDER = "\uFFFF";
 
     private final Configuration config;
-    private final PlantumlGenerator plantumlGenerator;
     private final FileFormat[] formats;
     private File diagramBaseFile;
+    private Function<URI, String> fileLinkRenderer;
+    private HtmlFileIndex htmlFileIndex;
 
     protected Diagram(Configuration config) {
         super(null);
         this.config = requireNonNull(config, "Configuration is <null>");
-        this.plantumlGenerator = PlantumlGenerator.getPlantumlGenerator(config);
         this.formats = config.images().formats().stream()
                 .map(this::toFileFormat).filter(Objects::nonNull)
                 .toArray(FileFormat[]::new);
@@ -83,6 +99,11 @@ public abstract class Diagram extends UMLNode {
         return output;
     }
 
+    @Override
+    protected Diagram getDiagram() {
+        return this;
+    }
+
     public Configuration getConfiguration() {
         return config;
     }
@@ -126,58 +147,243 @@ public abstract class Diagram extends UMLNode {
         return new File(base.getParent(), base.getName() + format.getFileSuffix());
     }
 
-    public void render() {
+    /**
+     * Renders a link to a file in this diagram.
+     * <p>
+     * While this diagram is being rendered, the file links are rendered by the renderer for that render.
+     * Otherwise they are rendered relative from the destination directory.
+     * This is render state of this diagram, so different diagrams can safely be rendered
+     * by different threads at the same time.
+     *
+     * @param fileTarget The {@code file:} URI of the link target.
+     * @return The rendered link target.
+     */
+    String renderFileLink(URI fileTarget) {
+        return fileLinkRenderer != null ? fileLinkRenderer.apply(fileTarget)
+                : fileLinksFrom(null).apply(fileTarget);
+    }
+
+    /**
+     * Renders file links relative from the base path.
+     *
+     * @param basePath The base path to render relative links from, or {@code null} for the destination directory.
+     * @return The renderer for file links.
+     */
+    private Function<URI, String> fileLinksFrom(String basePath) {
+        final File fromDir = new File(basePath == null ? config.destinationDirectory() : basePath);
+        final File existingFromDir = fromDir.isDirectory() ? fromDir : null;
+        return fileTarget -> Link.relativeTarget(fileTarget, existingFromDir);
+    }
+
+    /**
+     * Renders the plantuml source of this diagram, rendering the file links with the given renderer.
+     *
+     * @param renderer The renderer for the file links.
+     * @return The plantuml source.
+     */
+    private String renderWithFileLinks(Function<URI, String> renderer) {
+        final Function<URI, String> previous = fileLinkRenderer;
+        fileLinkRenderer = renderer;
+        try {
+            return super.toString();
+        } finally {
+            fileLinkRenderer = previous;
+        }
+    }
+
+    /**
+     * Renders this diagram in all configured image formats.
+     *
+     * @return The rendered diagram files, in the order of the configured image formats.
+     * @see #render(PlantumlGenerator)
+     */
+    public List<File> render() {
+        try (PlantumlGenerator plantumlGenerator = PlantumlGenerator.getPlantumlGenerator(config)) {
+            return render(plantumlGenerator);
+        }
+    }
+
+    /**
+     * Renders this diagram in all configured image formats using the specified generator.
+     * <p>
+     * Rendering many diagrams should share a single generator, as it can be reused for all diagrams.
+     *
+     * @param plantumlGenerator The generator to render the diagram images with.
+     * @return The rendered diagram files, in the order of the configured image formats.
+     */
+    public List<File> render(PlantumlGenerator plantumlGenerator) {
+        requireNonNull(plantumlGenerator, "PlantUML generator is <null>.");
         try {
             // 1. Render UML sources
-            String plantumlSource = renderPlantumlSource();
-            if (Link.linkFrom(getDiagramBaseFile().getParent()) || plantumlSource == null) {
-                plantumlSource = super.toString(); // Must re-render in case of different link base paths.
-            }
+            final String plantumlSource = renderPlantumlSource();
 
-            // 2. Render each diagram.
+            // 2. Render all diagram formats that are not in the cache from a single parse.
+            final DiagramCache cache = DiagramCache.forConfiguration(config).orElse(null);
+            final List<File> diagramFiles = new ArrayList<>(formats.length);
+            final Map<FileFormat, DiagramCache.Entry> uncached = new LinkedHashMap<>();
             for (FileFormat format : formats) {
-                renderDiagramFile(plantumlSource, format);
+                final File diagramFile = getDiagramFile(format);
+                final DiagramCache.Entry cached = cache == null ? null : cache.entry(plantumlSource, format);
+                ensureParentDir(diagramFile);
+                if (cached != null && cached.restoreTo(diagramFile)) {
+                    config.logger().debug(Message.DEBUG_RESTORED_FROM_CACHE, diagramFile, cached);
+                } else {
+                    uncached.put(format, cached);
+                }
+                diagramFiles.add(diagramFile);
             }
+            if (!uncached.isEmpty()) {
+                renderDiagramFiles(plantumlSource, uncached, plantumlGenerator);
+            }
+            return unmodifiableList(diagramFiles);
         } catch (IOException ioe) {
             throw new IllegalStateException("I/O error rendering " + this + ": " + ioe.getMessage(), ioe);
-        } finally {
-            Link.linkFrom(null);
         }
     }
 
-    private String renderPlantumlSource() throws IOException {
-        if (config.renderPumlFile()) {
-            return writePlantumlSourceToFile();
-        } else {
-            return null;
-        }
+    /**
+     * The index of generated HTML files to resolve links from.
+     *
+     * @return The index of HTML files, or {@code null} if the file system must be checked.
+     */
+    HtmlFileIndex getHtmlFileIndex() {
+        return htmlFileIndex;
+    }
+
+    /**
+     * Resolves links to the generated HTML documentation from the index, instead of checking the file system.
+     *
+     * @param htmlFiles The index of generated HTML files (optional, the file system is checked if null).
+     */
+    void useHtmlFileIndex(HtmlFileIndex htmlFiles) {
+        this.htmlFileIndex = htmlFiles;
     }
 
-    private String writePlantumlSourceToFile() throws IOException {
+    /**
+     * Renders the plantuml source to generate the diagram images from,
+     * writing the plantuml file as well if configured.
+     * <p>
+     * Links in the plantuml file are relative from the plantuml file,
+     * links in the images are relative from the image directory.
+     * If these differ, the diagram is rendered once to a template with placeholders for the file links,
+     * from which both sources are resolved.
+     *
+     * @return The plantuml source for the diagram images.
+     * @throws IOException if the plantuml file could not be written.
+     */
+    private String renderPlantumlSource() throws IOException {
+        final String imageBasePath = getDiagramBaseFile().getParent();
+        if (!config.renderPumlFile()) return renderWithFileLinks(fileLinksFrom(imageBasePath));
+
         File pumlFile = getPlantUmlFile();
         config.logger().info(Message.INFO_GENERATING_FILE, pumlFile);
 
         ensureParentDir(pumlFile);
-        Link.linkFrom(pumlFile.getParent());
-        try (StringBufferingWriter writer = createBufferingPlantumlFileWriter(pumlFile)) {
-            writeTo(IndentingPrintWriter.wrap(writer, config.indentation()));
-            return writer.getBuffer().toString();
+        final String pumlBasePath = pumlFile.getParent();
+        final String pumlSource, imageSource;
+        if (Objects.equals(pumlBasePath, imageBasePath)) {
+            pumlSource = imageSource = renderWithFileLinks(fileLinksFrom(pumlBasePath));
+        } else {
+            final List<URI> fileLinks = new ArrayList<>();
+            final String template = renderWithFileLinks(fileTarget -> {
+                fileLinks.add(fileTarget);
+                return FILE_LINK_PLACEHOLDER;
+            });
+            if (countFileLinkPlaceholders(template) == fileLinks.size()) {
+                pumlSource = resolveFileLinks(template, fileLinks, fileLinksFrom(pumlBasePath));
+                imageSource = resolveFileLinks(template, fileLinks, fileLinksFrom(imageBasePath));
+            } else { // The placeholder character is part of the diagram itself.
+                pumlSource = renderWithFileLinks(fileLinksFrom(pumlBasePath));
+                imageSource = renderWithFileLinks(fileLinksFrom(imageBasePath));
+            }
+        }
+        writePlantumlFile(pumlFile, pumlSource);
+        return imageSource;
+    }
+
+    private static int countFileLinkPlaceholders(String template) {
+        int count = 0;
+        for (int i = template.indexOf(FILE_LINK_PLACEHOLDER); i >= 0; i = template.indexOf(FILE_LINK_PLACEHOLDER, i + 1)) {
+            count++;
         }
+        return count;
     }
 
-    private StringBufferingWriter createBufferingPlantumlFileWriter(File pumlFile) throws IOException {
-        return new StringBufferingWriter(
-                new OutputStreamWriter(
-                        Files.newOutputStream(pumlFile.toPath()), config.umlCharset()));
+    private static String resolveFileLinks(String template, List<URI> fileLinks, Function<URI, String> renderer) {
+        if (fileLinks.isEmpty()) return template;
+        final StringBuilder resolved = new StringBuilder(template.length() + 32 * fileLinks.size());
+        int from = 0;
+        for (URI fileLink : fileLinks) {
+            final int placeholder = template.indexOf(FILE_LINK_PLACEHOLDER, from);
+            resolved.append(template, from, placeholder).append(renderer.apply(fileLink));
+            from = placeholder + FILE_LINK_PLACEHOLDER.length();
+        }
+        return resolved.append(template, from, template.length()).toString();
     }
 
-    private void renderDiagramFile(String plantumlSource, FileFormat format) throws IOException {
-        final File diagramFile = getDiagramFile(format);
-        config.logger().info(Message.INFO_GENERATING_FILE, diagramFile);
-        ensureParentDir(diagramFile);
-        try (OutputStream out = Files.newOutputStream(diagramFile.toPath())) {
-            plantumlGenerator.generatePlantumlDiagramFromSource(plantumlSource, format, out);
+    /**
+     * Encodes the rendered source straight into the plantuml file.
+     *
+     * @param pumlFile       The plantuml file to write.
+     * @param plantumlSource The rendered plantuml source.
+     * @throws IOException if the file could not be written.
+     */
+    private void writePlantumlFile(File pumlFile, String plantumlSource) throws IOException {
+        final ByteBuffer bytes = ByteBuffer.wrap(plantumlSource.getBytes(config.umlCharset()));
+        try (FileChannel channel = FileChannel.open(pumlFile.toPath(), WRITE, CREATE, TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) channel.write(bytes);
+        }
+    }
+
+    private void renderDiagramFiles(String plantumlSource, Map<FileFormat, DiagramCache.Entry> formats,
+                                    PlantumlGenerator plantumlGenerator) throws IOException {
+        final Map<FileFormat, OutputStream> outputs = new LinkedHashMap<>();
+        try {
+            for (FileFormat format : formats.keySet()) {
+                final File diagramFile = getDiagramFile(format);
+                config.logger().info(Message.INFO_GENERATING_FILE, diagramFile);
+                // Never overwrite in-place: an existing diagram file may be a hard link to a cached diagram.
+                Files.deleteIfExists(diagramFile.toPath());
+                outputs.put(format, Files.newOutputStream(diagramFile.toPath()));
+            }
+            plantumlGenerator.generatePlantumlDiagramsFromSource(plantumlSource, outputs);
+        } finally {
+            closeAll(outputs.values());
+        }
+        for (Map.Entry<FileFormat, DiagramCache.Entry> cached : formats.entrySet()) {
+            if (cached.getValue() != null) {
+                storeInCache(getDiagramFile(cached.getKey()), cached.getValue());
+            }
+        }
+    }
+
+    /**
+     * Stores a rendered diagram in the cache.
+     * <p>
+     * The diagram file itself was already written, so a cache that cannot be written to is reported but not fatal.
+     *
+     * @param diagramFile The rendered diagram file.
+     * @param cacheEntry  The cache entry to store the diagram in.
+     */
+    private void storeInCache(File diagramFile, DiagramCache.Entry cacheEntry) {
+        try {
+            cacheEntry.store(diagramFile);
+        } catch (IOException storeFailure) {
+            config.logger().warn(Message.WARNING_CANNOT_STORE_IN_CACHE, diagramFile, storeFailure);
+        }
+    }
+
+    private static void closeAll(Collection<? extends Closeable> closeables) throws IOException {
+        IOException failure = null;
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException ioe) {
+                if (failure == null) failure = ioe;
+                else failure.addSuppressed(ioe);
+            }
         }
+        if (failure != null) throw failure;
     }
 
     @Override
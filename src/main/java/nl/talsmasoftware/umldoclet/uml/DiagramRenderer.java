@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.uml.plantuml.PlantumlGenerator;
+import nl.talsmasoftware.umldoclet.util.ConcurrencyUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Renders diagrams, either one at a time or concurrently on a bounded pool of worker threads.
+ *
+ * <p>
+ * Diagrams are always <em>created</em> by the calling thread, because the javadoc element model is not thread-safe.
+ * Rendering a created diagram only needs the UML model itself, so it can be handed off to a worker thread
+ * while the calling thread continues creating the next diagram.
+ *
+ * <p>
+ * Rendering failures are reported in the order the diagrams were created,
+ * regardless of the order in which the worker threads finished them.
+ *
+ * <p>
+ * All diagrams are rendered by a single {@linkplain PlantumlGenerator}
+ * that is created for each {@linkplain #render(Stream) render} call and closed afterwards.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class DiagramRenderer {
+
+    private final Configuration config;
+    private final int threads;
+
+    public DiagramRenderer(Configuration config) {
+        this.config = requireNonNull(config, "Configuration is <null>.");
+        this.threads = max(1, config.renderThreads());
+    }
+
+    /**
+     * Renders all diagrams from the stream.
+     *
+     * <p>
+     * The stream is consumed by the calling thread. With more than one configured thread,
+     * the number of created diagrams waiting to be rendered is bounded to avoid retaining the whole UML model.
+     * Links to the generated HTML documentation are resolved from one index of the destination directory,
+     * created before the first diagram is rendered.
+     *
+     * @param diagrams The diagrams to render.
+     * @return The rendered diagram files, sorted by path.
+     * @throws RuntimeException The first rendering failure, with any later failures added as suppressed exceptions.
+     */
+    public List<File> render(Stream<? extends Diagram> diagrams) {
+        final Queue<File> rendered = new ConcurrentLinkedQueue<>();
+        final HtmlFileIndex htmlFiles = HtmlFileIndex.of(config.destinationDirectory());
+        try (PlantumlGenerator plantumlGenerator = PlantumlGenerator.getPlantumlGenerator(config)) {
+            ConcurrencyUtils.forEach(diagrams, threads, "umldoclet-render", diagram -> {
+                diagram.useHtmlFileIndex(htmlFiles);
+                rendered.addAll(diagram.render(plantumlGenerator));
+            });
+        }
+        return rendered.stream().sorted().collect(toList());
+    }
+}
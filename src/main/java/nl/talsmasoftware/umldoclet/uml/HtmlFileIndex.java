@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Index of the HTML files in the destination directory.
+ * <p>
+ * The standard doclet has written all HTML documentation before the diagrams are rendered,
+ * so links to documented types and packages can be resolved from this index
+ * instead of checking the file system for every link in every diagram.
+ * Files are indexed by their normalized absolute path, following symbolic links to directories,
+ * so a file in the destination directory is found if and only if it was an HTML file when it was indexed.
+ * Files outside the destination directory are still checked on the file system.
+ * <p>
+ * The index is immutable, so diagrams can use it from different threads at the same time.
+ *
+ * @author Sjoerd Talsma
+ */
+final class HtmlFileIndex {
+
+    private final Path root;
+    private final Set<Path> htmlFiles;
+
+    private HtmlFileIndex(Path root, Set<Path> htmlFiles) {
+        this.root = root;
+        this.htmlFiles = unmodifiableSet(htmlFiles);
+    }
+
+    /**
+     * Indexes the HTML files in the destination directory.
+     *
+     * @param destinationDirectory The destination directory of the documentation.
+     * @return The index of HTML files, or {@code null} if the directory is unknown or could not be read.
+     */
+    static HtmlFileIndex of(String destinationDirectory) {
+        if (destinationDirectory == null || destinationDirectory.isEmpty()) return null;
+        try {
+            final Path root = normalized(Paths.get(destinationDirectory));
+            if (!Files.isDirectory(root)) return new HtmlFileIndex(root, emptySet());
+            try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE, (path, attributes) ->
+                    attributes.isRegularFile() && path.getFileName().toString().endsWith(".html"),
+                    FileVisitOption.FOLLOW_LINKS)) {
+                return new HtmlFileIndex(root, paths.collect(toSet()));
+            }
+        } catch (IOException | UncheckedIOException | InvalidPathException unreadable) {
+            return null;
+        }
+    }
+
+    private static Path normalized(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Whether the file is one of the indexed HTML files.
+     * <p>
+     * Files outside the indexed destination directory are checked on the file system.
+     *
+     * @param file The file to look up, in the destination directory.
+     * @return {@code true} if the file is an indexed HTML file, otherwise {@code false}.
+     */
+    boolean contains(File file) {
+        final Path path;
+        try {
+            path = normalized(file.toPath());
+        } catch (InvalidPathException invalidPath) {
+            return file.isFile();
+        }
+        return path.startsWith(root) ? htmlFiles.contains(path) : file.isFile();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + htmlFiles.size() + " files}";
+    }
+}
@@ -19,7 +19,6 @@ import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
 
 import java.io.File;
 import java.net.URI;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -31,8 +30,6 @@ import static nl.talsmasoftware.umldoclet.util.FileUtils.relativePath;
  * @author Sjoerd Talsma
  */
 public class Link extends UMLNode {
-    private static final ThreadLocal<String> LINK_FROM = new ThreadLocal<>();
-
     private final URI target;
 
     private Link(UMLNode parent, URI target) {
@@ -46,7 +43,8 @@ public class Link extends UMLNode {
         final String nameInPackage = type.getName().qualified.startsWith(packageName + ".")
                 ? type.getName().qualified.substring(packageName.length() + 1) : type.getName().simple;
 
-        Optional<URI> target = relativeHtmlFile(destinationDirectory, type.getModulename().orElse(null), packageName, nameInPackage)
+        Optional<URI> target = relativeHtmlFile(htmlFileIndex(type), destinationDirectory,
+                type.getModulename().orElse(null), packageName, nameInPackage)
                 .or(() -> type.getConfiguration().resolveExternalLinkToType(packageName, nameInPackage));
         return new Link(type, target.orElse(null));
     }
@@ -55,59 +53,61 @@ public class Link extends UMLNode {
         final String destinationDirectory = namespace.getConfiguration().destinationDirectory();
         final String moduleName = namespace.getModuleName().orElse(null);
         final String packageName = namespace.name;
+        final HtmlFileIndex htmlFiles = htmlFileIndex(namespace);
         Optional<URI> target = Stream.of("package-summary", "module-summary")
-                .map(name -> relativeHtmlFile(destinationDirectory, moduleName, packageName, name))
+                .map(name -> relativeHtmlFile(htmlFiles, destinationDirectory, moduleName, packageName, name))
                 .filter(Optional::isPresent).map(Optional::get)
                 .findFirst()
                 .or(() -> namespace.getConfiguration().resolveExternalLinkToType(packageName, "package-summary"));
         return new Link(namespace, target.orElse(null));
     }
 
-    private static Optional<URI> relativeHtmlFile(String destinationDirectory, String moduleName, String packageName, String nameInPackage) {
+    private static HtmlFileIndex htmlFileIndex(UMLNode node) {
+        final Diagram diagram = node.getDiagram();
+        return diagram == null ? null : diagram.getHtmlFileIndex();
+    }
+
+    private static boolean isHtmlFile(HtmlFileIndex htmlFiles, File file) {
+        return htmlFiles == null ? file.isFile() : htmlFiles.contains(file);
+    }
+
+    private static Optional<URI> relativeHtmlFile(HtmlFileIndex htmlFiles, String destinationDirectory,
+                                                  String moduleName, String packageName, String nameInPackage) {
         final String packageAsPath = packageName.replace('.', '/');
         final String htmlFileName = nameInPackage + ".html";
 
         File file = new File(destinationDirectory + '/' + packageAsPath, htmlFileName);
-        if (file.isFile()) return Optional.of(file.toURI());
+        if (isHtmlFile(htmlFiles, file)) return Optional.of(file.toURI());
         if (moduleName != null) {
             file = new File(destinationDirectory + '/' + moduleName + '/' + packageAsPath, htmlFileName);
-            if (file.isFile()) return Optional.of(file.toURI());
+            if (isHtmlFile(htmlFiles, file)) return Optional.of(file.toURI());
         }
         return Optional.empty();
     }
 
     /**
-     * Sets the base path where relative links should be rendered from.
-     * <p>
-     * This setting is configured on a per-thread basis.
+     * Renders a link to a file relative from a directory.
      *
-     * @param basePath The base path to define relative links from.
-     * @return whether the base path was modified or not
+     * @param fileTarget The {@code file:} URI of the link target.
+     * @param fromDir    The directory to render the relative link from,
+     *                   or {@code null} if it does not exist and the absolute URI must be rendered.
+     * @return The rendered link target.
      */
-    public static boolean linkFrom(String basePath) {
-        if (Objects.equals(basePath, LINK_FROM.get())) return false;
-        if (basePath == null) LINK_FROM.remove();
-        else LINK_FROM.set(basePath);
-        return true;
-    }
-
-    private Optional<File> linkFromDir() {
-        String dir = LINK_FROM.get();
-        if (dir == null) dir = getConfiguration().destinationDirectory();
-        final File fromDir = new File(dir);
-        return fromDir.isDirectory() ? Optional.of(fromDir) : Optional.empty();
+    static String relativeTarget(URI fileTarget, File fromDir) {
+        return fromDir == null ? fileTarget.toASCIIString() : relativePath(fromDir, new File(fileTarget));
     }
 
-    private Optional<String> relativeTarget() {
-        return Optional.ofNullable(target)
-                .filter(uri -> "file".equals(uri.getScheme())).map(File::new)
-                .flatMap(targetFile -> linkFromDir().map(dir -> relativePath(dir, targetFile)));
+    private String renderTarget() {
+        if (!"file".equals(target.getScheme())) return target.toASCIIString();
+        final Diagram diagram = getDiagram();
+        if (diagram == null) throw new IllegalStateException("Cannot obtain configuration!");
+        return diagram.renderFileLink(target);
     }
 
     @Override
     public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
         if (target != null) {
-            output.append("[[").append(relativeTarget().orElseGet(target::toASCIIString)).append("]]");
+            output.append("[[").append(renderTarget()).append("]]");
         }
         return output;
     }
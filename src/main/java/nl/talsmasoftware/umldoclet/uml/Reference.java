@@ -168,6 +168,13 @@ public class Reference extends UMLNode {
             this.nameFirst = nameFirst;
         }
 
+        /**
+         * @return The qualified name of the referred type, without generics.
+         */
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
         private boolean matches(TypeName typeName) {
             return typeName != null && this.qualifiedName.equals(typeName.qualified);
         }
@@ -19,18 +19,19 @@ import nl.talsmasoftware.umldoclet.configuration.Configuration;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
 
-import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.newSetFromMap;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Part of an UML diagram that can render itself to the diagram by
@@ -45,7 +46,11 @@ import static java.util.stream.Collectors.toList;
 public abstract class UMLNode {
 
     private UMLNode parent;
+    private Diagram diagram = null;
+    private boolean resolvingDiagram = false;
     private final List<UMLNode> children = new ArrayList<>();
+    private List<UMLNode> childrenView = null;
+    private Map<Class<?>, List<?>> childrenByType = null;
 
     protected UMLNode(UMLNode parent) {
         this.parent = parent;
@@ -57,6 +62,7 @@ public abstract class UMLNode {
 
     public void setParent(UMLNode parent) {
         this.parent = parent;
+        forgetDiagram();
     }
 
     protected <U extends UMLNode> Optional<U> findParent(Class<U> nodeType) {
@@ -70,33 +76,91 @@ public abstract class UMLNode {
     }
 
     public List<UMLNode> getChildren() {
-        return unmodifiableList(children);
+        if (childrenView == null) childrenView = unmodifiableList(children);
+        return childrenView;
     }
 
     /**
      * Returns all children that are an instance of a particular type.
+     * <p>
+     * The filtered list is remembered until children are added or removed.
      *
      * @param type The type of {@code UMLNode} to return (required, non-null).
      * @param <T>  The type of children to obtain.
      * @return The filtered list of children of this uml node (unmodifiable).
      */
+    @SuppressWarnings("unchecked")
     public <T extends UMLNode> List<T> getChildren(Class<T> type) {
-        return unmodifiableList(getChildren().stream().filter(type::isInstance).map(type::cast).collect(toList()));
+        if (childrenByType == null) childrenByType = new HashMap<>(4);
+        List<T> filtered = (List<T>) childrenByType.get(type);
+        if (filtered == null) {
+            List<T> instances = new ArrayList<>();
+            for (UMLNode child : getChildren()) {
+                if (type.isInstance(child)) instances.add(type.cast(child));
+            }
+            filtered = instances.isEmpty() ? emptyList() : unmodifiableList(instances);
+            childrenByType.put(type, filtered);
+        }
+        return filtered;
     }
 
     public void addChild(UMLNode child) {
         children.add(child);
         child.setParent(this);
+        childrenChanged();
     }
 
     public boolean removeChildren(Predicate<? super UMLNode> condition) {
-        return children.removeIf(condition);
+        final boolean removed = children.removeIf(condition);
+        if (removed) childrenChanged();
+        return removed;
+    }
+
+    /**
+     * Called after children were added or removed,
+     * to forget anything that was derived from the previous children.
+     */
+    protected void childrenChanged() {
+        childrenByType = null;
+    }
+
+    /**
+     * The diagram this node is part of.
+     * <p>
+     * The diagram is looked up through the parents once and then remembered,
+     * until this node or one of its parents is moved to another parent.
+     *
+     * @return The diagram containing this node, or {@code null} if it is not part of a diagram.
+     */
+    protected Diagram getDiagram() {
+        if (diagram == null && parent != null && !resolvingDiagram) {
+            resolvingDiagram = true; // guards against cyclic parents
+            try {
+                diagram = parent.getDiagram();
+            } finally {
+                resolvingDiagram = false;
+            }
+        }
+        return diagram;
+    }
+
+    /**
+     * Forgets the remembered diagram of this node and its children.
+     * <p>
+     * Children can only have remembered their diagram through this node,
+     * so there is nothing to forget below a node that has not remembered it.
+     */
+    private void forgetDiagram() {
+        if (diagram != null) {
+            diagram = null;
+            for (UMLNode child : children) child.forgetDiagram();
+        }
     }
 
     protected Configuration getConfiguration() {
-        return findParent(Diagram.class)
-                .map(Diagram::getConfiguration)
-                .orElseThrow(() -> new IllegalStateException("Cannot obtain configuration!"));
+        final Diagram diagram = getDiagram();
+        if (diagram == null) throw new IllegalStateException("Cannot obtain configuration!");
+        return diagram.getConfiguration();
     }
 
     /**
@@ -126,7 +190,7 @@ public abstract class UMLNode {
      * @return The rendered content of this renderer.
      */
     public String toString() {
-        return writeTo(IndentingPrintWriter.wrap(new StringWriter(), indentation())).toString();
+        return writeTo(IndentingPrintWriter.wrapUnsynchronized(new StringBuilder(), indentation())).toString();
     }
 
     /**
@@ -15,16 +15,51 @@
  */
 package nl.talsmasoftware.umldoclet.uml.plantuml;
 
+import net.sourceforge.plantuml.BlockUml;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.Diagram;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Generates diagrams using the PlantUML library included in the doclet.
+ *
+ * <p>
+ * This generator is stateless: PlantUML keeps its parsing and layout state in the per-diagram
+ * {@linkplain SourceStringReader}, so that is the only thing created for each diagram.
+ *
+ * @author Sjoerd Talsma
+ */
 public final class BuiltinPlantumlGenerator implements PlantumlGenerator {
     @Override
     public void generatePlantumlDiagramFromSource(String plantumlSource, FileFormat format, OutputStream out) throws IOException {
         new SourceStringReader(plantumlSource).outputImage(out, new FileFormatOption(format));
     }
+
+    /**
+     * Parses the PlantUML source once and exports the parsed diagram in each requested format.
+     *
+     * @param plantumlSource The PlantUML source of the diagram.
+     * @param outputs        The output stream to write each format to.
+     * @throws IOException if the diagram could not be written to one of the outputs.
+     */
+    @Override
+    public void generatePlantumlDiagramsFromSource(String plantumlSource, Map<FileFormat, ? extends OutputStream> outputs) throws IOException {
+        final SourceStringReader reader = new SourceStringReader(plantumlSource);
+        final List<BlockUml> blocks = reader.getBlocks();
+        final Diagram diagram = blocks.isEmpty() ? null : blocks.get(0).getDiagram();
+        for (Map.Entry<FileFormat, ? extends OutputStream> output : outputs.entrySet()) {
+            final FileFormatOption fileFormatOption = new FileFormatOption(output.getKey());
+            if (diagram == null) {
+                reader.outputImage(output.getValue(), fileFormatOption); // Renders the 'no valid start' image.
+            } else {
+                diagram.exportDiagram(output.getValue(), 0, fileFormatOption);
+            }
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.version.Version;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Content-addressed cache of rendered diagram files, shared between javadoc runs.
+ *
+ * <p>
+ * Cached diagrams are stored by a hash of everything that determines the rendered result:
+ * the PlantUML source, the file format, the generator (PlantUML version or server url)
+ * and the custom PlantUML directives.
+ * A diagram whose source did not change since an earlier run can therefore be
+ * linked or copied into place without calling the {@link PlantumlGenerator} again.
+ *
+ * <p>
+ * Entries are written to a temporary file first and then moved into place,
+ * so concurrent renderers (or concurrent javadoc runs) sharing the same cache directory never see partial entries.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class DiagramCache {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+    private final String generator;
+    private final List<String> customDirectives;
+
+    DiagramCache(File directory, String generator, List<String> customDirectives) {
+        this.directory = requireNonNull(directory, "Cache directory is <null>.");
+        this.generator = requireNonNull(generator, "Generator is <null>.");
+        this.customDirectives = requireNonNull(customDirectives, "Custom directives are <null>.");
+    }
+
+    /**
+     * The diagram cache for the configuration, if a cache directory was configured.
+     *
+     * @param config The doclet configuration.
+     * @return The diagram cache, or {@code empty} if no cache directory was configured.
+     */
+    public static Optional<DiagramCache> forConfiguration(Configuration config) {
+        return config.images().cacheDirectory().map(cacheDir -> new DiagramCache(
+                new File(cacheDir),
+                config.plantumlServerUrl().orElseGet(() -> "PlantUML " + Version.versionString()),
+                config.customPlantumlDirectives()));
+    }
+
+    /**
+     * Looks up the cache entry for the PlantUML source in a specific format.
+     *
+     * @param plantumlSource The PlantUML source of the diagram.
+     * @param format         The format to render the diagram in.
+     * @return The cache entry (which may or may not exist yet).
+     */
+    public Entry entry(String plantumlSource, FileFormat format) {
+        final MessageDigest digest = sha256();
+        update(digest, generator);
+        update(digest, format.name());
+        for (String directive : customDirectives) update(digest, directive);
+        update(digest, plantumlSource);
+        return new Entry(new File(directory, hex(digest.digest()) + format.getFileSuffix()).toPath());
+    }
+
+    /**
+     * A single cached diagram file.
+     */
+    public static final class Entry {
+        private final Path cached;
+
+        private Entry(Path cached) {
+            this.cached = cached;
+        }
+
+        /**
+         * Restores the cached diagram to the target file.
+         *
+         * <p>
+         * The cached diagram is hard-linked if possible, otherwise it is copied.
+         *
+         * @param target The target diagram file.
+         * @return {@code true} if the diagram was restored from the cache, {@code false} if it was not cached.
+         * @throws IOException if the cached diagram could not be restored.
+         */
+        public boolean restoreTo(File target) throws IOException {
+            if (!Files.isRegularFile(cached)) return false;
+            final Path targetPath = target.toPath();
+            Files.deleteIfExists(targetPath);
+            try {
+                Files.createLink(targetPath, cached);
+            } catch (IOException | UnsupportedOperationException | SecurityException linkNotPossible) {
+                Files.copy(cached, targetPath, REPLACE_EXISTING);
+            }
+            return true;
+        }
+
+        /**
+         * Stores the rendered diagram file in the cache.
+         *
+         * @param rendered The freshly rendered diagram file.
+         * @throws IOException if the diagram could not be stored in the cache.
+         */
+        public void store(File rendered) throws IOException {
+            Files.createDirectories(cached.getParent());
+            Path temp = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".tmp");
+            try {
+                Files.copy(rendered.toPath(), temp, REPLACE_EXISTING);
+                Files.move(temp, cached, ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return cached.toString();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 message digest is not supported: " + nsae.getMessage(), nsae);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        final byte[] bytes = value.getBytes(UTF_8);
+        // Length-prefix each component, so ("ab", "c") and ("a", "bc") never yield the same key.
+        digest.update(new byte[]{(byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                (byte) (bytes.length >>> 8), (byte) bytes.length});
+        digest.update(bytes);
+    }
+
+    private static String hex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[2 * i + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -20,17 +20,59 @@ import nl.talsmasoftware.umldoclet.configuration.Configuration;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Map;
 
 import static nl.talsmasoftware.umldoclet.uml.plantuml.RemotePlantumlGenerator.HTTP_URLS;
 
-public interface PlantumlGenerator {
+/**
+ * Generates diagram images from PlantUML source.
+ *
+ * <p>
+ * Implementations must be thread-safe, as a single generator is shared by all diagrams that are rendered
+ * (possibly concurrently) in a doclet run.
+ * The generator is closed after all diagrams are rendered.
+ *
+ * @author Sjoerd Talsma
+ */
+public interface PlantumlGenerator extends AutoCloseable {
     static PlantumlGenerator getPlantumlGenerator(Configuration configuration) {
         return configuration.plantumlServerUrl()
                 .filter(url -> HTTP_URLS.matcher(url).find())
                 .map(url -> (PlantumlGenerator) new RemotePlantumlGenerator(url))
-                .orElseGet(BuiltinPlantumlGenerator::new);
+                .orElseGet(() -> configuration.renderProcesses() > 0
+                        ? new ProcessPlantumlGenerator(
+                        ProcessPlantumlGenerator.workerCommand(configuration.renderProcessOptions()),
+                        configuration.renderProcesses(), configuration.renderProcessDiagrams())
+                        : new BuiltinPlantumlGenerator());
     }
 
     void generatePlantumlDiagramFromSource(String plantumlSource, FileFormat format, OutputStream out) throws IOException;
 
+    /**
+     * Generates the diagram in multiple formats from the same PlantUML source.
+     *
+     * <p>
+     * By default, this generates each format separately.
+     * Implementations that can parse and lay out the source once for all formats should override this.
+     * The output streams are not closed by the generator.
+     *
+     * @param plantumlSource The PlantUML source of the diagram.
+     * @param outputs        The output stream to write each format to.
+     * @throws IOException if the diagram could not be written to one of the outputs.
+     */
+    default void generatePlantumlDiagramsFromSource(String plantumlSource, Map<FileFormat, ? extends OutputStream> outputs) throws IOException {
+        for (Map.Entry<FileFormat, ? extends OutputStream> output : outputs.entrySet()) {
+            generatePlantumlDiagramFromSource(plantumlSource, output.getKey(), output.getValue());
+        }
+    }
+
+    /**
+     * Releases any resources held by the generator, such as processes or connections.
+     * <p>
+     * By default, there is nothing to release.
+     */
+    @Override
+    default void close() {
+    }
+
 }
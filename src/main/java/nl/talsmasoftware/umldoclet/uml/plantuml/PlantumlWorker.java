@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.OptionFlags;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Entry point of a separate JVM process rendering diagrams for the {@linkplain ProcessPlantumlGenerator}.
+ *
+ * <p>
+ * The worker reads render requests from its standard input and writes the rendered diagrams to its standard output,
+ * until its standard input is closed.
+ * Anything PlantUML prints to {@code System.out} is redirected to the standard error stream.
+ *
+ * <p>
+ * A request consists of the number of formats, the name of each {@linkplain FileFormat},
+ * followed by the UTF-8 encoded PlantUML source.
+ * The response is either a success flag followed by the rendered diagram for each format,
+ * or a failure flag followed by the error message.
+ * Both sources, diagrams and messages are written as length-prefixed byte arrays.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class PlantumlWorker {
+
+    private final PlantumlGenerator generator;
+
+    PlantumlWorker(PlantumlGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Runs the worker on the standard input and output of this process.
+     *
+     * @param args Optionally the PlantUML timeout in milliseconds.
+     * @throws IOException if the standard input or output failed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) OptionFlags.getInstance().setTimeoutMs(Long.parseLong(args[0]));
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err); // Standard output is reserved for the rendered diagrams.
+        new PlantumlWorker(new BuiltinPlantumlGenerator()).serve(in, out);
+    }
+
+    /**
+     * Renders requested diagrams until the input is closed.
+     *
+     * @param in  The input to read requests from.
+     * @param out The output to write responses to.
+     * @throws IOException if reading a request or writing a response failed.
+     */
+    void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        for (Map<FileFormat, ByteArrayOutputStream> request = readRequestFormats(in);
+             request != null;
+             request = readRequestFormats(in)) {
+            final String plantumlSource = new String(readBytes(in), UTF_8);
+            try {
+                generator.generatePlantumlDiagramsFromSource(plantumlSource, request);
+                out.writeBoolean(true);
+                for (ByteArrayOutputStream diagram : request.values()) {
+                    writeBytes(out, diagram.toByteArray());
+                }
+            } catch (IOException | RuntimeException renderingFailure) {
+                out.writeBoolean(false);
+                writeBytes(out, String.valueOf(renderingFailure).getBytes(UTF_8));
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the formats of the next request.
+     *
+     * @param in The input to read the request from.
+     * @return The output buffer for each requested format, or {@code null} if there are no more requests.
+     * @throws IOException if the request could not be read.
+     */
+    private static Map<FileFormat, ByteArrayOutputStream> readRequestFormats(DataInputStream in) throws IOException {
+        final int formatCount;
+        try {
+            formatCount = in.readInt();
+        } catch (EOFException endOfRequests) {
+            return null;
+        }
+        final Map<FileFormat, ByteArrayOutputStream> formats = new LinkedHashMap<>();
+        for (int i = 0; i < formatCount; i++) {
+            formats.put(FileFormat.valueOf(in.readUTF()), new ByteArrayOutputStream());
+        }
+        return formats;
+    }
+
+    static void writeRequest(DataOutputStream out, String plantumlSource, Collection<FileFormat> formats) throws IOException {
+        out.writeInt(formats.size());
+        for (FileFormat format : formats) {
+            out.writeUTF(format.name());
+        }
+        writeBytes(out, plantumlSource.getBytes(UTF_8));
+        out.flush();
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
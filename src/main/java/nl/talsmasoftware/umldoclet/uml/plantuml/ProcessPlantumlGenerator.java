@@ -0,0 +1,336 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.OptionFlags;
+import net.sourceforge.plantuml.SourceStringReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Generates diagrams in a pool of separate JVM processes running the {@linkplain PlantumlWorker}.
+ *
+ * <p>
+ * This keeps the memory PlantUML needs for laying out (large) diagrams out of the javadoc heap.
+ * The processes are started when needed, up to the configured number of processes,
+ * and communicate over their standard input and output.
+ * Each process is replaced by a fresh one after rendering a fixed number of diagrams,
+ * so memory retained by PlantUML does not accumulate.
+ * A process that dies while rendering, or does not respond within the PlantUML timeout (see {@code -umlTimeout}),
+ * is replaced, and the diagram is rendered once more.
+ *
+ * <p>
+ * The generator is thread-safe: each process renders one diagram at a time,
+ * render threads wait for a process to become available.
+ * Closing the generator stops all idle processes.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class ProcessPlantumlGenerator implements PlantumlGenerator {
+    /**
+     * The default number of diagrams a process renders before it is replaced.
+     */
+    public static final int DEFAULT_DIAGRAMS_PER_PROCESS = 100;
+    private static final int MAX_ATTEMPTS = 2;
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+    private static final Duration RESPONSE_TIMEOUT_MARGIN = Duration.ofSeconds(30);
+
+    private final List<String> command;
+    private final int diagramsPerProcess;
+    private final long responseTimeoutMs;
+    private final Semaphore available;
+    private final Deque<Worker> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger startedProcesses = new AtomicInteger();
+
+    /**
+     * Creates a generator for a pool of PlantUML worker processes.
+     * <p>
+     * The time to wait for a response is based on the PlantUML timeout (see {@code -umlTimeout}).
+     *
+     * @param command            The command to start a worker process, see {@link #workerCommand(List)}.
+     * @param processes          The maximum number of processes to render diagrams with.
+     * @param diagramsPerProcess The number of diagrams to render before a process is replaced.
+     */
+    ProcessPlantumlGenerator(List<String> command, int processes, int diagramsPerProcess) {
+        this(command, processes, diagramsPerProcess, responseTimeout(OptionFlags.getInstance().getTimeoutMs()));
+    }
+
+    /**
+     * Creates a generator for a pool of processes started with the given command.
+     *
+     * @param command            The command to start a worker process.
+     * @param processes          The maximum number of processes to render diagrams with.
+     * @param diagramsPerProcess The number of diagrams to render before a process is replaced.
+     * @param responseTimeout    The time to wait for each rendered format before a process is considered unresponsive
+     *                           (zero or negative to wait indefinitely).
+     */
+    ProcessPlantumlGenerator(List<String> command, int processes, int diagramsPerProcess, Duration responseTimeout) {
+        if (processes < 1) throw new IllegalArgumentException("At least one process is required.");
+        this.command = Collections.unmodifiableList(new ArrayList<>(command));
+        this.diagramsPerProcess = Math.max(1, diagramsPerProcess);
+        this.responseTimeoutMs = Math.max(0L, responseTimeout.toMillis());
+        this.available = new Semaphore(processes);
+    }
+
+    /**
+     * The PlantUML timeout applies within the worker, the margin allows for starting the process itself.
+     *
+     * @param plantumlTimeoutMs The PlantUML timeout in milliseconds.
+     * @return The time to wait for a rendered format.
+     */
+    private static Duration responseTimeout(long plantumlTimeoutMs) {
+        return plantumlTimeoutMs > 0 ? Duration.ofMillis(plantumlTimeoutMs).plus(RESPONSE_TIMEOUT_MARGIN) : Duration.ZERO;
+    }
+
+    /**
+     * The command to start a worker process with the same Java runtime and PlantUML library as the doclet.
+     *
+     * @param jvmOptions The options for the JVM.
+     * @return The command to start a worker process.
+     */
+    static List<String> workerCommand(List<String> jvmOptions) {
+        final Set<String> classpath = new LinkedHashSet<>();
+        classpath.add(classpathEntry(PlantumlWorker.class));
+        classpath.add(classpathEntry(SourceStringReader.class));
+
+        final List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Djava.awt.headless=true");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classpath));
+        command.add(PlantumlWorker.class.getName());
+        command.add(Long.toString(OptionFlags.getInstance().getTimeoutMs()));
+        return command;
+    }
+
+    private static String classpathEntry(Class<?> type) {
+        final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            throw new IllegalStateException("Cannot determine classpath location of " + type.getName() + '.');
+        }
+        try {
+            return new File(codeSource.getLocation().toURI()).getPath();
+        } catch (URISyntaxException | RuntimeException e) {
+            throw new IllegalStateException("Cannot determine classpath location of " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void generatePlantumlDiagramFromSource(String plantumlSource, FileFormat format, OutputStream out) throws IOException {
+        generatePlantumlDiagramsFromSource(plantumlSource, singletonMap(format, out));
+    }
+
+    @Override
+    public void generatePlantumlDiagramsFromSource(String plantumlSource, Map<FileFormat, ? extends OutputStream> outputs) throws IOException {
+        requireNonNull(plantumlSource, "UML diagram source was <null>.");
+        acquireProcess();
+        try {
+            final List<byte[]> diagrams = renderInWorker(plantumlSource, new ArrayList<>(outputs.keySet()));
+            int i = 0;
+            for (OutputStream out : outputs.values()) {
+                final byte[] diagram = diagrams.get(i++);
+                out.write(diagram, 0, diagram.length);
+            }
+        } finally {
+            available.release();
+        }
+    }
+
+    private void acquireProcess() {
+        try {
+            available.acquire();
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a PlantUML process.", interrupted);
+        }
+    }
+
+    private List<byte[]> renderInWorker(String plantumlSource, List<FileFormat> formats) throws IOException {
+        IOException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Worker worker = idle.pollFirst();
+            try {
+                if (worker == null) {
+                    worker = new Worker(new ProcessBuilder(command)
+                            .redirectError(ProcessBuilder.Redirect.INHERIT)
+                            .start());
+                    startedProcesses.incrementAndGet();
+                }
+                final List<byte[]> diagrams = worker.render(plantumlSource, formats, responseTimeoutMs * formats.size());
+                release(worker);
+                return diagrams;
+            } catch (RenderingException renderingFailure) {
+                release(worker); // The process itself is fine, the diagram could not be rendered.
+                throw renderingFailure;
+            } catch (IOException processFailure) {
+                if (worker != null) worker.destroy();
+                if (failure == null) failure = new IOException("PlantUML process failed: " + processFailure, processFailure);
+                else failure.addSuppressed(processFailure);
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * @return The number of processes started by this generator, including replaced processes.
+     */
+    int startedProcesses() {
+        return startedProcesses.get();
+    }
+
+    private void release(Worker worker) {
+        if (worker.rendered < diagramsPerProcess) idle.addFirst(worker);
+        else worker.stop();
+    }
+
+    /**
+     * Stops all idle processes.
+     */
+    @Override
+    public void close() {
+        for (Worker worker = idle.pollFirst(); worker != null; worker = idle.pollFirst()) {
+            worker.stop();
+        }
+    }
+
+    private static final class Worker {
+        private final Process process;
+        private final DataOutputStream requests;
+        private final DataInputStream responses;
+        private int rendered = 0;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+
+        /**
+         * Renders the diagram in this process.
+         * <p>
+         * If there is no response before the timeout, the process is destroyed,
+         * which ends the blocked read with an {@linkplain IOException}.
+         *
+         * @param plantumlSource The PlantUML source of the diagram.
+         * @param formats        The formats to render the diagram in.
+         * @param timeoutMs      The time to wait for the response (zero to wait indefinitely).
+         * @return The rendered diagram for each format.
+         * @throws IOException if the process failed or did not respond in time.
+         */
+        private List<byte[]> render(String plantumlSource, List<FileFormat> formats, long timeoutMs) throws IOException {
+            rendered++;
+            final AtomicBoolean timedOut = new AtomicBoolean(false);
+            final ScheduledFuture<?> deadline = timeoutMs > 0 ? Watchdog.SCHEDULER.schedule(() -> {
+                timedOut.set(true);
+                destroy();
+            }, timeoutMs, TimeUnit.MILLISECONDS) : null;
+            try {
+                PlantumlWorker.writeRequest(requests, plantumlSource, formats);
+                if (!responses.readBoolean()) {
+                    throw new RenderingException(new String(PlantumlWorker.readBytes(responses), UTF_8));
+                }
+                final List<byte[]> diagrams = new ArrayList<>(formats.size());
+                for (int i = 0; i < formats.size(); i++) {
+                    diagrams.add(PlantumlWorker.readBytes(responses));
+                }
+                return diagrams;
+            } catch (IOException failure) {
+                if (timedOut.get()) {
+                    throw new IOException("PlantUML process did not respond within " + timeoutMs + " ms.", failure);
+                }
+                throw failure;
+            } finally {
+                if (deadline != null) deadline.cancel(false);
+            }
+        }
+
+        /**
+         * Closes the standard input of the process, which makes it exit after its last request.
+         */
+        private void stop() {
+            try {
+                requests.close();
+                if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) destroy();
+            } catch (IOException closeFailure) {
+                destroy();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                destroy();
+            }
+        }
+
+        private void destroy() {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Single daemon thread destroying processes that do not respond in time, shared by all generators.
+     */
+    private static final class Watchdog {
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+                thread.setName("PlantUML process watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    private static final class RenderingException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private RenderingException(String message) {
+            super("Error rendering diagram in PlantUML process: " + message);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package nl.talsmasoftware.umldoclet.uml.plantuml;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.code.ArobaseStringCompressor;
 import net.sourceforge.plantuml.code.AsciiEncoder;
 import net.sourceforge.plantuml.code.CompressionZlib;
@@ -26,52 +27,202 @@ import net.sourceforge.plantuml.code.TranscoderImpl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Generates diagrams by a remote PlantUML server.
+ *
+ * <p>
+ * Small diagrams are requested with a {@code GET} request containing the encoded diagram in the URL.
+ * Diagrams whose encoded URL would become too long are sent in the body of a {@code POST} request instead.
+ *
+ * <p>
+ * Responses are always read completely, so the underlying connections are kept alive and
+ * reused for subsequent requests to the same server.
+ * Failed requests are retried a limited number of times, unless the server rejected the diagram itself
+ * or did not respond within the read timeout.
+ * The generator is thread-safe: the number of concurrent requests is determined
+ * by the number of threads rendering diagrams.
+ *
+ * @author Sjoerd Talsma
+ */
 @SuppressFBWarnings(value = "URLCONNECTION_SSRF_FD", justification = "We only allow http(s) urls.")
 public class RemotePlantumlGenerator implements PlantumlGenerator {
     public static final Pattern HTTP_URLS = Pattern.compile("^https?://");
 
     private static final String DEFAULT_PLANTUML_BASE_URL = "https://www.plantuml.com/plantuml/";
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofMillis(250);
+    private static final int DEFAULT_MAX_ATTEMPTS = 3;
+    private static final int MAX_GET_URL_LENGTH = 4096;
     private static final Transcoder TRANSCODER =
             TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(), new CompressionZlib());
 
     private final String baseUrl;
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final int maxGetUrlLength;
 
+    /**
+     * Creates a generator for a remote PlantUML server.
+     *
+     * <p>
+     * The time to wait for a rendered diagram is the PlantUML timeout (see {@code -umlTimeout}).
+     * A diagram that is not rendered in time is not requested again,
+     * so a server that stops responding blocks a render thread for at most one timeout per diagram.
+     *
+     * @param baseUrl The base url of the PlantUML server.
+     */
     public RemotePlantumlGenerator(final String baseUrl) {
+        this(baseUrl, DEFAULT_CONNECT_TIMEOUT, Duration.ofMillis(OptionFlags.getInstance().getTimeoutMs()),
+                DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY, MAX_GET_URL_LENGTH);
+    }
+
+    RemotePlantumlGenerator(final String baseUrl, Duration connectTimeout, Duration readTimeout,
+                            int maxAttempts, Duration retryDelay, int maxGetUrlLength) {
         String url = Objects.toString(baseUrl, DEFAULT_PLANTUML_BASE_URL);
         if (!HTTP_URLS.matcher(url).find()) {
             throw new IllegalArgumentException("Unsupported PlantUML server base url: [" + url + "].");
         }
         if (!url.endsWith("/")) url += "/";
         this.baseUrl = url;
+        this.connectTimeoutMs = toTimeoutMillis(connectTimeout);
+        this.readTimeoutMs = toTimeoutMillis(readTimeout);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelay.toMillis();
+        this.maxGetUrlLength = maxGetUrlLength;
     }
 
     @Override
     public void generatePlantumlDiagramFromSource(String plantumlSource, FileFormat format, OutputStream out) {
-        final String encodedDiagram = encodeDiagram(plantumlSource);
-        final String diagramUrl = baseUrl + format.name().toLowerCase() + '/' + encodedDiagram;
-        try (InputStream in = new URL(diagramUrl).openConnection().getInputStream()) {
-            final byte[] buf = new byte[4096];
-            for (int read = in.read(buf); read >= 0; read = in.read(buf)) {
-                out.write(buf, 0, read);
-            }
+        try {
+            final byte[] diagram = requestDiagram(requireNonNull(plantumlSource, "UML diagram source was <null>."), format);
+            out.write(diagram, 0, diagram.length);
         } catch (IOException | RuntimeException e) {
             throw new RuntimeException("Error generating diagram: " + e.getMessage(), e);
         }
     }
 
+    private byte[] requestDiagram(String plantumlSource, FileFormat format) throws IOException {
+        final String formatUrl = baseUrl + format.name().toLowerCase(Locale.ROOT);
+        final String diagramUrl = formatUrl + '/' + encodeDiagram(plantumlSource);
+        IOException failure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1) waitBeforeRetry(attempt, failure);
+            try {
+                return diagramUrl.length() <= maxGetUrlLength
+                        ? send(open(diagramUrl))
+                        : send(post(open(formatUrl), plantumlSource));
+            } catch (IOException ioe) {
+                if (failure != null) ioe.addSuppressed(failure);
+                failure = ioe;
+                if (ioe instanceof ResponseTimeoutException) break;
+                if (ioe instanceof HttpStatusException && !((HttpStatusException) ioe).isRetryable()) break;
+            }
+        }
+        throw failure;
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(connectTimeoutMs);
+        connection.setReadTimeout(readTimeoutMs);
+        return connection;
+    }
+
+    private static HttpURLConnection post(HttpURLConnection connection, String plantumlSource) throws IOException {
+        final byte[] body = plantumlSource.getBytes(UTF_8);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream requestBody = connection.getOutputStream()) {
+            requestBody.write(body);
+        }
+        return connection;
+    }
+
+    /**
+     * Reads the complete response, also for unsuccessful requests so the connection can be reused.
+     */
+    private static byte[] send(HttpURLConnection connection) throws IOException {
+        connection.connect(); // Timeouts from here on are read timeouts.
+        try {
+            final int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_OK) {
+                try (InputStream in = connection.getInputStream()) {
+                    return in.readAllBytes();
+                }
+            }
+            try (InputStream error = connection.getErrorStream()) {
+                if (error != null) error.readAllBytes();
+            }
+            throw new HttpStatusException(connection.getURL(), status);
+        } catch (SocketTimeoutException readTimeout) {
+            throw new ResponseTimeoutException(connection.getURL(), readTimeout);
+        }
+    }
+
+    private void waitBeforeRetry(int attempt, IOException failure) throws IOException {
+        try {
+            Thread.sleep(retryDelayMs << (attempt - 2));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted before retrying: " + failure.getMessage(), failure);
+        }
+    }
+
     private String encodeDiagram(final String diagramSource) {
         try {
             // TODO internalize transcoder to be able to remove PlantUML dependency altogether.
-            return TRANSCODER.encode(requireNonNull(diagramSource, "UML diagram source was <null>."));
+            return TRANSCODER.encode(diagramSource);
         } catch (IOException ioe) {
             throw new IllegalStateException("Error encoding diagram: " + ioe.getMessage(), ioe);
         }
     }
 
+    private static int toTimeoutMillis(Duration timeout) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, timeout.toMillis()));
+    }
+
+    private static final class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private HttpStatusException(URL url, int status) {
+            super("Server returned HTTP response code: " + status + " for URL: " + url);
+            this.status = status;
+        }
+
+        /**
+         * Server errors, timeouts and throttling may be temporary, other client errors mean the diagram was rejected.
+         */
+        private boolean isRetryable() {
+            return status >= 500 || status == HttpURLConnection.HTTP_CLIENT_TIMEOUT || status == 429;
+        }
+    }
+
+    /**
+     * The server accepted the request, but did not respond in time.
+     */
+    private static final class ResponseTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private ResponseTimeoutException(URL url, SocketTimeoutException timeout) {
+            super("No response within the read timeout from URL: " + url, timeout);
+        }
+    }
+
 }
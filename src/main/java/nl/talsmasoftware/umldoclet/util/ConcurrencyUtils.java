@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for running tasks concurrently.
+ *
+ * @author Sjoerd Talsma
+ */
+public final class ConcurrencyUtils {
+
+    private ConcurrencyUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Performs an action for each item of a stream, either on the calling thread or on a bounded pool of worker threads.
+     *
+     * <p>
+     * The stream itself is always consumed by the calling thread.
+     * With more than one thread, the number of items waiting to be processed is bounded,
+     * to avoid retaining all items in memory when the stream is lazily created.
+     * After the first failure, no new items are submitted.
+     *
+     * <p>
+     * Failures are reported in the order of the stream,
+     * regardless of the order in which the worker threads finished them.
+     *
+     * @param items      The items to process.
+     * @param threads    The number of threads to use, {@code 1} to process all items on the calling thread.
+     * @param threadName The name prefix for the worker threads.
+     * @param action     The action to perform for each item.
+     * @param <T>        The type of the items.
+     * @throws RuntimeException The first failure, with any later failures added as suppressed exceptions.
+     */
+    public static <T> void forEach(Stream<T> items, int threads, String threadName, Consumer<? super T> action) {
+        if (threads <= 1) {
+            items.forEach(action);
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory(threadName));
+        final Semaphore pending = new Semaphore(2 * threads);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final List<Future<?>> results = new ArrayList<>();
+        try {
+            for (Iterator<T> it = items.iterator(); it.hasNext() && !failed.get(); ) {
+                final T item = it.next();
+                pending.acquire();
+                results.add(executor.submit(() -> {
+                    try {
+                        action.accept(item);
+                    } catch (RuntimeException | Error failure) {
+                        failed.set(true);
+                        throw failure;
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            }
+            awaitInOrder(results);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + threadName + " threads.", interrupted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitInOrder(List<Future<?>> results) throws InterruptedException {
+        RuntimeException firstFailure = null;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException ee) {
+                RuntimeException failure = asRuntimeException(ee.getCause());
+                if (firstFailure == null) firstFailure = failure;
+                else firstFailure.addSuppressed(failure);
+            }
+        }
+        if (firstFailure != null) throw firstFailure;
+    }
+
+    private static RuntimeException asRuntimeException(Throwable cause) {
+        if (cause instanceof RuntimeException) return (RuntimeException) cause;
+        else if (cause instanceof Error) throw (Error) cause;
+        return new IllegalStateException("Unexpected exception: " + cause.getMessage(), cause);
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger(0);
+
+        private NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
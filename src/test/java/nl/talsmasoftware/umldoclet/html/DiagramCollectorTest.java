@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.html;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DiagramCollectorTest {
+
+    private File tempdir;
+    private Configuration config;
+    private ImageConfig images;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempdir = Files.createTempDirectory("DiagramCollector-test").toFile();
+        config = mock(Configuration.class);
+        images = mock(ImageConfig.class);
+        when(config.destinationDirectory()).thenReturn(tempdir.getPath());
+        when(config.images()).thenReturn(images);
+        when(images.formats()).thenReturn(singleton(ImageConfig.Format.SVG));
+        when(images.directory()).thenReturn(Optional.empty());
+    }
+
+    private List<File> diagramFiles(String... relativePaths) {
+        return Stream.of(relativePaths).map(path -> new File(tempdir, path)).collect(toList());
+    }
+
+    @Test
+    public void testDiagramsIndexedByHtmlFile() {
+        List<File> diagramFiles = diagramFiles("a/b/Foo.svg", "a/b/Foo.png", "a/b/package.svg", "package-dependencies.svg");
+
+        Map<String, List<DiagramFile>> diagrams = new DiagramCollector(config).collectDiagrams(diagramFiles);
+
+        assertThat(diagrams.keySet(), containsInAnyOrder("a/b/Foo.html", "a/b/package-summary.html",
+                "index.html", "overview-summary.html", "module-summary.html"));
+        assertThat(diagrams.get("a/b/Foo.html"), hasSize(1));
+        assertThat(diagrams.get("a/b/Foo.html").get(0), instanceOf(ClassDiagramInserter.class));
+        assertThat(diagrams.get("a/b/package-summary.html").get(0), instanceOf(PackageDiagramInserter.class));
+        assertThat(diagrams.get("index.html").get(0), instanceOf(PackageDependenciesInserter.class));
+    }
+
+    @Test
+    public void testDiagramsInImagesDirectoryIndexedByHtmlFile() {
+        when(images.directory()).thenReturn(Optional.of("images"));
+        List<File> diagramFiles = diagramFiles("images/a.b.Foo.svg", "images/a.b.package.svg");
+
+        Map<String, List<DiagramFile>> diagrams = new DiagramCollector(config).collectDiagrams(diagramFiles);
+
+        assertThat(diagrams.keySet(), containsInAnyOrder("a/b/Foo.html", "a/b/package-summary.html"));
+    }
+}
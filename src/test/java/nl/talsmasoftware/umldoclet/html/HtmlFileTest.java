@@ -72,6 +72,14 @@ public class HtmlFileTest {
         assertThat(newTempFile.getName(), endsWith(".tmp")); // Java's default extension for temp files
     }
 
+    @Test
+    public void testTempfileIsCreatedNextToHtmlFile() throws IOException {
+        Configuration config = mock(Configuration.class);
+        Path path = new File(tempdir, "Page.html").toPath();
+        File newTempFile = new HtmlFile(config, path).createNewTempFile();
+        assertThat(newTempFile.getParentFile().getCanonicalFile(), is(equalTo(tempdir.getCanonicalFile())));
+    }
+
     @Test
     public void testReplaceBy() throws IOException {
         // prepare
@@ -17,12 +17,17 @@ package nl.talsmasoftware.umldoclet.javadoc;
 
 import nl.talsmasoftware.umldoclet.UMLDoclet;
 import nl.talsmasoftware.umldoclet.configuration.Visibility;
+import nl.talsmasoftware.umldoclet.util.TestUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Optional;
 import java.util.spi.ToolProvider;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -71,6 +76,27 @@ public class DocletConfigTest {
         assertThat(getDocletHelpOutput(), not(containsString("<MISSING KEY>")));
     }
 
+    @Test
+    public void testFirstExternalLinkDocumentingPackageWins() throws IOException {
+        File first = Files.createTempDirectory("umldoclet-docletconfig-test").toFile();
+        File second = Files.createTempDirectory("umldoclet-docletconfig-test").toFile();
+        try {
+            TestUtil.write(new File(first, "element-list"), "module:java.base\njava.lang\n");
+            TestUtil.write(new File(second, "package-list"), "java.lang\ncom.example\n");
+            config.externalLinks.add(new ExternalLink(config, "https://first.example.com/api", first.getPath()));
+            config.externalLinks.add(new ExternalLink(config, "https://second.example.com/api", second.getPath()));
+
+            assertThat(config.resolveExternalLinkToType("java.lang", "Object").map(URI::toString),
+                    is(Optional.of("https://first.example.com/api/java.base/java/lang/Object.html?is-external=true")));
+            assertThat(config.resolveExternalLinkToType("com.example", "Example").map(URI::toString),
+                    is(Optional.of("https://second.example.com/api/com/example/Example.html?is-external=true")));
+            assertThat(config.resolveExternalLinkToType("org.example", "Example"), is(Optional.empty()));
+        } finally {
+            TestUtil.deleteRecursive(first);
+            TestUtil.deleteRecursive(second);
+        }
+    }
+
     private void assertMemberVisibility(Visibility visibility, boolean expected) {
         assertThat(config.fieldConfig.visibilities.contains(visibility), is(expected));
         assertThat(config.methodConfig.visibilities.contains(visibility), is(expected));
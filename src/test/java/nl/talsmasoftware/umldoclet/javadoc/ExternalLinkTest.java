@@ -29,7 +29,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
-import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -87,13 +86,25 @@ public class ExternalLinkTest {
         when(config.destinationDirectory()).thenReturn("");
         ExternalLink externalLink = new ExternalLink(config, "doesn't-exist", "doesn't-exist");
 
-        Optional<URI> resolved = externalLink.resolveType("com.my.package", "MyBeautifulClass");
-        assertThat(resolved, is(Optional.empty()));
+        assertThat(externalLink.packageUris().get("com.my.package"), is(nullValue()));
 
         assertThat(logger.countMessages(Message.WARNING_CANNOT_READ_PACKAGE_LIST::equals), is(1));
         verify(config, atLeast(1)).destinationDirectory();
     }
 
+    @Test
+    public void testTypeUriFromElementListModules() {
+        when(config.destinationDirectory()).thenReturn("");
+        TestUtil.write(new File(tempdir, "element-list"), "module:java.base\njava.lang\nmodule:java.sql\njava.sql\n");
+        ExternalLink externalLink = new ExternalLink(config, "https://docs.example.com/api", tempdir.getPath());
+
+        URI packageUri = externalLink.packageUris().get("java.sql");
+        assertThat(ExternalLink.typeUri(packageUri, "Connection").toString(),
+                is("https://docs.example.com/api/java.sql/java/sql/Connection.html?is-external=true"));
+        assertThat(externalLink.packageUris().get("java.util"), is(nullValue()));
+        verify(config, atLeast(1)).destinationDirectory();
+    }
+
     @Test
     public void testIllegalUrls() {
         IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () ->
@@ -108,8 +119,7 @@ public class ExternalLinkTest {
         TestUtil.write(new File(tempdir, "package-list"), "java.lang\n");
         ExternalLink externalLink = new ExternalLink(config, "https://www.google.com/apidocs", tempdir.getPath());
 
-        Optional<URI> resolved = externalLink.resolveType("java.lang", "Object");
-        assertThat(resolved, is(Optional.empty()));
+        assertThat(externalLink.packageUris().get("java.lang"), is(nullValue()));
         verify(config, atLeast(1)).destinationDirectory();
     }
 
@@ -120,8 +130,7 @@ public class ExternalLinkTest {
         TestUtil.write(new File(tempdir, "element-list"), "module:java.base\njava.lang\n");
         ExternalLink externalLink = new ExternalLink(config, "https://www.google.com/apidocs", tempdir.getPath());
 
-        Optional<URI> resolved = externalLink.resolveType("java.lang", "Object");
-        assertThat(resolved, is(Optional.empty()));
+        assertThat(externalLink.packageUris().get("java.lang"), is(nullValue()));
         verify(config, atLeast(1)).destinationDirectory();
     }
 
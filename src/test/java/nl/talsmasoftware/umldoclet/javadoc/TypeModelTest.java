@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import nl.talsmasoftware.umldoclet.configuration.Visibility;
+import nl.talsmasoftware.umldoclet.uml.Method;
+import nl.talsmasoftware.umldoclet.uml.Type;
+import nl.talsmasoftware.umldoclet.uml.TypeMember;
+import nl.talsmasoftware.umldoclet.uml.TypeName;
+import org.junit.jupiter.api.Test;
+
+import javax.lang.model.element.TypeElement;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class TypeModelTest {
+    private static final TypeName STRING = new TypeName("java.lang", "String", "java.lang.String");
+
+    private final TypeModel model = new TypeModel(mock(TypeElement.class),
+            new TypeName("a.b", "Shape", "a.b.Shape"), Type.Classification.ABSTRACT_CLASS, "a.b", null, false,
+            asList(TypeModel.Member.field("name", STRING, Visibility.PRIVATE, false, false),
+                    TypeModel.Member.method("getName", STRING, Visibility.PUBLIC, false, false, false,
+                            false, emptyList(), emptyList()),
+                    TypeModel.Member.method("area", STRING, Visibility.PUBLIC, false, true, false,
+                            false, emptyList(), emptyList())),
+            null, emptyList(), null, null, emptyList(), emptyList());
+
+    private static List<String> memberNames(Type type) {
+        return type.getChildren().stream()
+                .filter(TypeMember.class::isInstance).map(TypeMember.class::cast)
+                .map(member -> member.name)
+                .collect(toList());
+    }
+
+    @Test
+    void testPopulatedTypeContainsAllMembers() {
+        assertThat(memberNames(model.createPopulatedType(null)), contains("name", "getName", "area"));
+    }
+
+    @Test
+    void testPopulatedTypeWithSelectedMembers() {
+        Type type = model.createPopulatedType(null, TypeModel.Member::isAbstractMethod);
+
+        assertThat(memberNames(type), contains("area"));
+        assertThat(((Method) type.getChildren().get(0)).isAbstract, is(true));
+        assertThat(memberNames(model.createPopulatedType(null, member -> member.isField() || member.isAbstractMethod())),
+                contains("name", "area"));
+    }
+
+    @Test
+    void testEachTypeHasItsOwnMembers() {
+        Type type1 = model.createPopulatedType(null);
+        Type type2 = model.createPopulatedType(null);
+
+        assertThat(type2.getChildren().get(0), is(not(sameInstance(type1.getChildren().get(0)))));
+        assertThat(type1.getChildren().get(0).getParent(), is(sameInstance(type1)));
+        assertThat(type2.getChildren().get(0).getParent(), is(sameInstance(type2)));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import com.sun.source.util.JavacTask;
+import nl.talsmasoftware.umldoclet.uml.TypeName;
+import org.junit.jupiter.api.Test;
+
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.ToolProvider;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TypeNameVisitorTest {
+    private final JavacTask javac = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null, null, null, null, null);
+    private final Elements elements = javac.getElements();
+    private final Types types = javac.getTypes();
+
+    private TypeMirror type(Class<?> type, TypeMirror... typeArguments) {
+        return types.getDeclaredType(elements.getTypeElement(type.getName()), typeArguments);
+    }
+
+    private static String generics(TypeName typeName) {
+        TypeName[] generics = typeName.getGenerics();
+        return generics.length == 0 ? typeName.qualified : typeName.qualified
+                + Stream.of(generics).map(TypeNameVisitorTest::generics).collect(joining(", ", "<", ">"));
+    }
+
+    @Test
+    void testCachingFunctionReturnsSameTypeNameAsVisitor() {
+        Function<TypeMirror, TypeName> typeNames = TypeNameVisitor.cachingFunction();
+        TypeMirror string = type(String.class);
+        TypeMirror listOfFoo = type(List.class, type(TestObject.class));
+
+        assertThat(typeNames.apply(string), is(equalTo(TypeNameVisitor.INSTANCE.visit(string))));
+        assertThat(generics(typeNames.apply(string)), is("java.lang.String"));
+        assertThat(typeNames.apply(listOfFoo), is(equalTo(TypeNameVisitor.INSTANCE.visit(listOfFoo))));
+        assertThat(generics(typeNames.apply(listOfFoo)),
+                is("java.util.List<nl.talsmasoftware.umldoclet.javadoc.TestObject>"));
+    }
+
+    @Test
+    void testCachingFunctionRemembersTypesWithoutTypeArguments() {
+        Function<TypeMirror, TypeName> typeNames = TypeNameVisitor.cachingFunction();
+
+        assertThat(typeNames.apply(type(String.class)), is(sameInstance(typeNames.apply(type(String.class)))));
+    }
+
+    @Test
+    void testCachingFunctionDistinguishesTypeArguments() {
+        Function<TypeMirror, TypeName> typeNames = TypeNameVisitor.cachingFunction();
+
+        assertThat(generics(typeNames.apply(type(List.class, type(String.class)))),
+                is("java.util.List<java.lang.String>"));
+        assertThat(generics(typeNames.apply(type(List.class, type(TestObject.class)))),
+                is("java.util.List<nl.talsmasoftware.umldoclet.javadoc.TestObject>"));
+    }
+}
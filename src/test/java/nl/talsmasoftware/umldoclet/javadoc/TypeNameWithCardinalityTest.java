@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc;
+
+import com.sun.source.util.JavacTask;
+import org.junit.jupiter.api.Test;
+
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.ToolProvider;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TypeNameWithCardinalityTest {
+    private final JavacTask javac = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null, null, null, null, null);
+    private final Elements elements = javac.getElements();
+    private final Types types = javac.getTypes();
+    private final Function<TypeMirror, TypeNameWithCardinality> function =
+            TypeNameWithCardinality.function(types, TypeNameVisitor.cachingFunction());
+
+    private TypeMirror type(Class<?> type, TypeMirror... typeArguments) {
+        return types.getDeclaredType(elements.getTypeElement(type.getName()), typeArguments);
+    }
+
+    @Test
+    void testIterableSubtypesHaveMultipleCardinality() {
+        TypeNameWithCardinality listOfFoo = function.apply(type(ArrayList.class, type(TestObject.class)));
+        TypeNameWithCardinality setOfStrings = function.apply(type(Set.class, type(String.class)));
+        TypeNameWithCardinality streamOfFoo = function.apply(type(Stream.class, type(TestObject.class)));
+
+        assertThat(listOfFoo.typeName.qualified, is(TestObject.class.getName()));
+        assertThat(listOfFoo.cardinality, is("*"));
+        assertThat(setOfStrings.typeName.qualified, is(String.class.getName()));
+        assertThat(setOfStrings.cardinality, is("*"));
+        assertThat(streamOfFoo.typeName.qualified, is(TestObject.class.getName()));
+        assertThat(streamOfFoo.cardinality, is("*"));
+    }
+
+    @Test
+    void testOptionalHasOptionalCardinality() {
+        TypeNameWithCardinality optionalFoo = function.apply(type(Optional.class, type(TestObject.class)));
+
+        assertThat(optionalFoo.typeName.qualified, is(TestObject.class.getName()));
+        assertThat(optionalFoo.cardinality, is("0..1"));
+    }
+
+    @Test
+    void testRememberedCardinalityUsesActualTypeArgument() {
+        function.apply(type(ArrayList.class, type(TestObject.class)));
+        TypeNameWithCardinality listOfStrings = function.apply(type(ArrayList.class, type(String.class)));
+        function.apply(type(Optional.class, type(TestObject.class)));
+        TypeNameWithCardinality optionalString = function.apply(type(Optional.class, type(String.class)));
+
+        assertThat(listOfStrings.typeName.qualified, is(String.class.getName()));
+        assertThat(listOfStrings.cardinality, is("*"));
+        assertThat(optionalString.typeName.qualified, is(String.class.getName()));
+        assertThat(optionalString.cardinality, is("0..1"));
+    }
+
+    @Test
+    void testOtherTypesHaveNoCardinality() {
+        function.apply(type(String.class));
+        TypeNameWithCardinality string = function.apply(type(String.class));
+        TypeNameWithCardinality comparableFoo = function.apply(type(Comparable.class, type(TestObject.class)));
+
+        assertThat(string.typeName.qualified, is(String.class.getName()));
+        assertThat(string.cardinality, is(nullValue()));
+        assertThat(comparableFoo.typeName.qualified, is(Comparable.class.getName()));
+        assertThat(comparableFoo.cardinality, is(nullValue()));
+    }
+}
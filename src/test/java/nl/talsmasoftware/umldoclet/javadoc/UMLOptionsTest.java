@@ -21,9 +21,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
+import java.util.Optional;
+
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -68,4 +71,110 @@ public class UMLOptionsTest {
         // verify
         assertThat(expected.getMessage(), containsString("timeout value"));
     }
+
+    @Test
+    void testUmlThreadsOption() {
+        // prepare
+        DocletConfig config = new DocletConfig();
+        Doclet.Option umlThreadsOption = new UMLOptions(config).mergeWith(emptySet()).stream()
+                .filter(o -> o.getNames().contains("--uml-threads"))
+                .findFirst().orElseThrow(() -> new AssertionFailedError("Doclet option --uml-threads not found!"));
+
+        // execute
+        umlThreadsOption.process("--uml-threads", singletonList("4"));
+
+        // verify
+        assertThat(config.renderThreads(), is(4));
+    }
+
+    @Test
+    void testIllegalUmlThreadsOption() {
+        // prepare
+        Doclet.Option umlThreadsOption = docletOption("--uml-threads");
+
+        // execute
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () ->
+                umlThreadsOption.process("--uml-threads", singletonList("0")));
+
+        // verify
+        assertThat(expected.getMessage(), containsString("threads value"));
+    }
+
+    @Test
+    void testUmlCacheDirOption() {
+        // prepare
+        DocletConfig config = new DocletConfig();
+        Doclet.Option umlCacheDirOption = new UMLOptions(config).mergeWith(emptySet()).stream()
+                .filter(o -> o.getNames().contains("--uml-cache-dir"))
+                .findFirst().orElseThrow(() -> new AssertionFailedError("Doclet option --uml-cache-dir not found!"));
+
+        // execute
+        umlCacheDirOption.process("--uml-cache-dir", singletonList("target/uml-cache"));
+
+        // verify
+        assertThat(config.images().cacheDirectory(), is(Optional.of("target/uml-cache")));
+    }
+
+    @Test
+    void testUmlRenderProcessesOptions() {
+        // prepare
+        DocletConfig config = new DocletConfig();
+        UMLOptions options = new UMLOptions(config);
+        Doclet.Option processesOption = options.mergeWith(emptySet()).stream()
+                .filter(o -> o.getNames().contains("--uml-render-processes"))
+                .findFirst().orElseThrow(() -> new AssertionFailedError("Doclet option --uml-render-processes not found!"));
+        Doclet.Option processOptionOption = options.mergeWith(emptySet()).stream()
+                .filter(o -> o.getNames().contains("--uml-render-process-option"))
+                .findFirst().orElseThrow(() -> new AssertionFailedError("Doclet option --uml-render-process-option not found!"));
+
+        // execute
+        processesOption.process("--uml-render-processes", singletonList("2"));
+        processOptionOption.process("--uml-render-process-option", singletonList("-Xmx512m"));
+
+        // verify
+        assertThat(config.renderProcesses(), is(2));
+        assertThat(config.renderProcessOptions(), contains("-Xmx512m"));
+    }
+
+    @Test
+    void testIllegalUmlRenderProcessesOption() {
+        // prepare
+        Doclet.Option processesOption = docletOption("--uml-render-processes");
+
+        // execute
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () ->
+                processesOption.process("--uml-render-processes", singletonList("-1")));
+
+        // verify
+        assertThat(expected.getMessage(), containsString("processes value"));
+    }
+
+    @Test
+    void testUmlRenderProcessDiagramsOption() {
+        // prepare
+        DocletConfig config = new DocletConfig();
+        Doclet.Option diagramsOption = new UMLOptions(config).mergeWith(emptySet()).stream()
+                .filter(o -> o.getNames().contains("--uml-render-process-diagrams"))
+                .findFirst().orElseThrow(() -> new AssertionFailedError("Doclet option --uml-render-process-diagrams not found!"));
+        assertThat(config.renderProcessDiagrams(), is(100));
+
+        // execute
+        diagramsOption.process("--uml-render-process-diagrams", singletonList("25"));
+
+        // verify
+        assertThat(config.renderProcessDiagrams(), is(25));
+    }
+
+    @Test
+    void testIllegalUmlRenderProcessDiagramsOption() {
+        // prepare
+        Doclet.Option diagramsOption = docletOption("--uml-render-process-diagrams");
+
+        // execute
+        IllegalArgumentException expected = assertThrows(IllegalArgumentException.class, () ->
+                diagramsOption.process("--uml-render-process-diagrams", singletonList("0")));
+
+        // verify
+        assertThat(expected.getMessage(), containsString("diagrams value"));
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-2022 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc.dependencies;
+
+import jdk.javadoc.doclet.Doclet;
+import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import javax.lang.model.SourceVersion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.spi.ToolProvider;
+
+import static java.util.Collections.emptySet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DependenciesElementScannerTest {
+
+    @Test
+    public void testConcurrentScanFindsSameDependenciesAsSingleThreadedScan() {
+        assertThat("Javadoc result", ToolProvider.findFirst("javadoc").get().run(
+                System.out, System.err,
+                "-doclet", ScanningDoclet.class.getName(),
+                "-quiet",
+                "-sourcepath", "src/main/java",
+                "-subpackages", "nl.talsmasoftware.umldoclet"
+        ), is(0));
+
+        assertThat(ScanningDoclet.singleThreaded, is(not(empty())));
+        assertThat(ScanningDoclet.multiThreaded, is(equalTo(ScanningDoclet.singleThreaded)));
+    }
+
+    /**
+     * Doclet that scans the included elements of the javadoc run with one and with multiple threads.
+     */
+    public static class ScanningDoclet implements Doclet {
+        static List<PackageDependency> singleThreaded;
+        static List<PackageDependency> multiThreaded;
+
+        @Override
+        public void init(Locale locale, Reporter reporter) {
+        }
+
+        @Override
+        public String getName() {
+            return "Scanning";
+        }
+
+        @Override
+        public Set<? extends Option> getSupportedOptions() {
+            return emptySet();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latest();
+        }
+
+        @Override
+        public boolean run(DocletEnvironment docEnv) {
+            Configuration config = mock(Configuration.class);
+            when(config.logger()).thenReturn(mock(Logger.class));
+            singleThreaded = new ArrayList<>(new DependenciesElementScanner(docEnv, config)
+                    .scan(docEnv.getIncludedElements(), 1));
+            multiThreaded = new ArrayList<>(new DependenciesElementScanner(docEnv, config)
+                    .scan(docEnv.getIncludedElements(), 4));
+            return true;
+        }
+    }
+}
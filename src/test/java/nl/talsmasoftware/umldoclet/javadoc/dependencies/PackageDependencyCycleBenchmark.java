@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc.dependencies;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Simple benchmark of {@link PackageDependencyCycle#detectCycles(Iterable)} on synthetic package graphs.
+ *
+ * <p>
+ * This is not a unit test; run the {@link #main(String[])} method manually.
+ */
+public class PackageDependencyCycleBenchmark {
+
+    public static void main(String[] args) {
+        for (int packages : new int[]{100, 300, 900}) {
+            benchmark("layered, " + packages + " packages", layered(packages, 5, packages / 50));
+            benchmark("random, " + packages + " packages", random(packages, 8));
+        }
+    }
+
+    /**
+     * Packages only depend on packages in lower layers, except for a few dependencies back up.
+     */
+    private static Set<PackageDependency> layered(int packages, int dependenciesPerPackage, int backDependencies) {
+        Random random = new Random(packages);
+        Set<PackageDependency> dependencies = new LinkedHashSet<>();
+        for (int from = 1; from < packages; from++) {
+            for (int i = 0; i < dependenciesPerPackage; i++) {
+                dependencies.add(new PackageDependency("pkg" + from, "pkg" + random.nextInt(from)));
+            }
+        }
+        for (int i = 0; i < backDependencies; i++) {
+            int to = 1 + random.nextInt(packages - 1);
+            dependencies.add(new PackageDependency("pkg" + random.nextInt(to), "pkg" + to));
+        }
+        return dependencies;
+    }
+
+    /**
+     * Packages depend on random other packages, resulting in a densely connected graph.
+     */
+    private static Set<PackageDependency> random(int packages, int dependenciesPerPackage) {
+        Random random = new Random(packages);
+        Set<PackageDependency> dependencies = new LinkedHashSet<>();
+        for (int from = 0; from < packages; from++) {
+            for (int i = 0; i < dependenciesPerPackage; i++) {
+                int to = random.nextInt(packages);
+                if (to != from) dependencies.add(new PackageDependency("pkg" + from, "pkg" + to));
+            }
+        }
+        return dependencies;
+    }
+
+    private static void benchmark(String name, Set<PackageDependency> dependencies) {
+        int cycles = 0;
+        final int rounds = 20;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            cycles = PackageDependencyCycle.detectCycles(dependencies).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s, %d dependencies: %d cycles in %.3f ms%n",
+                name, dependencies.size(), cycles, elapsed / 1e6 / rounds);
+    }
+}
@@ -17,12 +17,15 @@ package nl.talsmasoftware.umldoclet.javadoc.dependencies;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -80,4 +83,27 @@ public class PackageDependencyCycleTest {
         assertThat(cycles, hasItem(new PackageDependencyCycle(ab, bd, de, ea)));
     }
 
+    @Test
+    public void testCycleDetectionIndependentOfDependencyOrder() {
+        PackageDependency ab = new PackageDependency("a", "b");
+        PackageDependency bc = new PackageDependency("b", "c");
+        PackageDependency ca = new PackageDependency("c", "a");
+
+        Collection<PackageDependencyCycle> cycles = PackageDependencyCycle.detectCycles(asList(bc, ab, ca));
+        assertThat(cycles, contains(new PackageDependencyCycle(bc, ca, ab)));
+    }
+
+    @Test
+    public void testNumberOfDetectedCyclesIsLimited() {
+        List<PackageDependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                if (i != j) dependencies.add(new PackageDependency("p" + i, "p" + j));
+            }
+        }
+
+        assertThat(PackageDependencyCycle.detectCycles(dependencies, 25), hasSize(25));
+        assertThat(PackageDependencyCycle.detectCycles(dependencies), hasSize(PackageDependencyCycle.DEFAULT_MAX_CYCLES));
+    }
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.javadoc.dependencies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PackageDependencyGraphTest {
+
+    @Test
+    public void testPackageDependenciesInOrderOfAddition() {
+        PackageDependencyGraph graph = new PackageDependencyGraph();
+        Set<PackageDependency> dependencies = graph.packageDependencies();
+
+        assertThat(graph.addDependency("b", "a"), is(true));
+        assertThat(graph.addDependency("a", "c"), is(true));
+        assertThat(graph.addDependency("b", "a"), is(false));
+        assertThat(graph.addDependency("c", "c"), is(false));
+
+        assertThat(dependencies, contains(new PackageDependency("b", "a"), new PackageDependency("a", "c")));
+        assertThat(dependencies, hasItem(new PackageDependency("a", "c")));
+        assertThat(dependencies.contains(new PackageDependency("c", "a")), is(false));
+        assertThat(dependencies.contains(new PackageDependency("c", "d")), is(false));
+    }
+
+    @Test
+    public void testPackageIdsInOrderOfAddition() {
+        PackageDependencyGraph graph = new PackageDependencyGraph();
+        graph.addDependency("b", "a");
+
+        assertThat(graph.packageId("b"), is(0));
+        assertThat(graph.packageId("a"), is(1));
+        assertThat(graph.packageName(1), is("a"));
+        assertThat(graph.size(), is(2));
+    }
+
+    @Test
+    public void testStronglyConnectedComponents() {
+        PackageDependencyGraph graph = new PackageDependencyGraph();
+        graph.addDependency("a", "b");
+        graph.addDependency("b", "a");
+        graph.addDependency("b", "c");
+
+        assertThat(graph.stronglyConnectedComponents(), hasSize(2));
+        assertThat(graph.elementaryCycles(10), hasSize(1));
+    }
+
+    @Test
+    public void testGraphIsReusedForCycleDetection() {
+        PackageDependencyGraph graph = new PackageDependencyGraph();
+        graph.addDependency("a", "b");
+
+        assertThat(PackageDependencyGraph.of(graph.packageDependencies()), is(sameInstance(graph)));
+        assertThat(PackageDependencyGraph.of(graph.packageDependencies().stream()::iterator), is(not(sameInstance(graph))));
+    }
+}
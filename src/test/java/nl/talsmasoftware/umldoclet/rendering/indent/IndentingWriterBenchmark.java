@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.rendering.indent;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static java.lang.Character.isWhitespace;
+
+/**
+ * Simple benchmark comparing the previous character-by-character indenting writer
+ * with the synchronized and unsynchronized variants of the {@link IndentingWriter}.
+ *
+ * <p>
+ * This is not a unit test; run the {@link #main(String[])} method manually, optionally passing the number of
+ * writers per round as argument.
+ */
+public class IndentingWriterBenchmark {
+    private static final String SOURCE = "@startuml\n" +
+            "    class \"a.b.C\" [[C.html]] {\n" +
+            "        +getName(): String\n" +
+            "        -field: int\n" +
+            "    }\n" +
+            "@enduml\n";
+
+    public static void main(String[] args) {
+        final int writers = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        for (int round = 1; round <= 8; round++) {
+            long perCharacter = benchmark(writers,
+                    delegate -> new PrintWriter(new PerCharacterIndentingWriter(delegate, Indentation.DEFAULT)));
+            long synchronizedWriter = benchmark(writers,
+                    delegate -> IndentingPrintWriter.wrap(delegate, Indentation.DEFAULT));
+            long unsynchronizedWriter = benchmark(writers,
+                    delegate -> IndentingPrintWriter.wrapUnsynchronized(delegate, Indentation.DEFAULT));
+
+            System.out.printf("Round %d: per character: %.1f ms, synchronized: %.1f ms, unsynchronized: %.1f ms%n",
+                    round, perCharacter / 1e6, synchronizedWriter / 1e6, unsynchronizedWriter / 1e6);
+        }
+    }
+
+    private static long benchmark(int writers, Function<Writer, PrintWriter> indentingWriter) {
+        long written = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < writers; i++) {
+            StringWriter delegate = new StringWriter(256);
+            PrintWriter writer = indentingWriter.apply(delegate);
+            for (int j = 0; j < 10; j++) {
+                writer.append(SOURCE);
+                writer.append("class").append(' ').append("x").println();
+            }
+            writer.flush();
+            written += delegate.getBuffer().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (written == 0) throw new IllegalStateException("Nothing was written.");
+        return elapsed;
+    }
+
+    /**
+     * The previous indenting writer algorithm, indenting and delegating one character at a time
+     * while holding the writer lock.
+     */
+    private static final class PerCharacterIndentingWriter extends Writer {
+        private final Appendable delegate;
+        private final Indentation indentation;
+        private final AtomicBoolean addWhitespace = new AtomicBoolean(false);
+        private char lastWritten = '\n';
+
+        private PerCharacterIndentingWriter(Appendable delegate, Indentation indentation) {
+            super(delegate);
+            this.delegate = delegate;
+            this.indentation = indentation;
+        }
+
+        private static boolean isEol(char ch) {
+            return ch == '\r' || ch == '\n';
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (len > 0) {
+                char ch = cbuf[off];
+                synchronized (lock) {
+                    if (addWhitespace.compareAndSet(true, false) && !isWhitespace(lastWritten) && !isWhitespace(ch)) {
+                        delegate.append(' ');
+                        lastWritten = ' ';
+                    }
+                    for (int i = 0; i < len; i++) {
+                        ch = cbuf[off + i];
+                        if (isEol(lastWritten) && !isEol(ch)) delegate.append(indentation);
+                        delegate.append(ch);
+                        lastWritten = ch;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -74,6 +74,26 @@ public class IndentingWriterTest {
         assertThat(indentingWriter, hasToString("first line\n    second line"));
     }
 
+    @Test
+    public void testIndentMultipleLinesAtOnce() throws IOException {
+        StringWriter output = new StringWriter();
+        IndentingWriter indentingWriter = new IndentingWriter(output, Indentation.DEFAULT).indent();
+        indentingWriter.write("first line\nsecond line\r\n\nthird line");
+        indentingWriter.append("xfourth\nfifth line", 1, 13).write('\n');
+        assertThat(output, hasToString("    first line\n    second line\r\n\n    third linefourth\n    fifth\n"));
+    }
+
+    @Test
+    public void testUnsynchronizedWriter() throws IOException {
+        StringBuilder output = new StringBuilder();
+        IndentingWriter indentingWriter = IndentingWriter.wrapUnsynchronized(output, Indentation.DEFAULT);
+        indentingWriter.write("first line\n");
+        indentingWriter.indent().append("second").whitespace().write("line\n".toCharArray(), 0, 5);
+        indentingWriter.write("third line");
+        assertThat(output, hasToString("first line\n    second line\nthird line"));
+        assertThat(IndentingWriter.wrapUnsynchronized(indentingWriter, null), is(sameInstance(indentingWriter)));
+    }
+
     @Test
     public void testCloseRethrowingRuntimeExceptions() throws IOException {
         final RuntimeException runtimeException = new RuntimeException("Runtime exception!");
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.uml.plantuml.PlantumlGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DiagramRendererTest {
+    private Configuration config;
+    private List<Diagram> diagrams;
+
+    @BeforeEach
+    void setUp() {
+        config = mock(Configuration.class);
+        diagrams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) diagrams.add(mock(Diagram.class));
+    }
+
+    @Test
+    void testSequentialRendering() {
+        when(config.renderThreads()).thenReturn(1);
+
+        new DiagramRenderer(config).render(diagrams.stream());
+
+        diagrams.forEach(diagram -> verify(diagram).render(any(PlantumlGenerator.class)));
+    }
+
+    @Test
+    void testConcurrentRendering() {
+        when(config.renderThreads()).thenReturn(4);
+
+        new DiagramRenderer(config).render(diagrams.stream());
+
+        diagrams.forEach(diagram -> verify(diagram).render(any(PlantumlGenerator.class)));
+    }
+
+    @Test
+    void testRenderedFilesAreReturnedSorted() {
+        when(config.renderThreads()).thenReturn(4);
+        Diagram first = mock(Diagram.class);
+        Diagram second = mock(Diagram.class);
+        when(first.render(any(PlantumlGenerator.class))).thenReturn(asList(new File("b.svg"), new File("b.png")));
+        when(second.render(any(PlantumlGenerator.class))).thenReturn(singletonList(new File("a.svg")));
+
+        List<File> rendered = new DiagramRenderer(config).render(Stream.of(first, second));
+
+        assertThat(rendered, contains(new File("a.svg"), new File("b.png"), new File("b.svg")));
+    }
+
+    @Test
+    void testDiagramsShareOneGenerator() {
+        when(config.renderThreads()).thenReturn(4);
+        List<PlantumlGenerator> generators = new CopyOnWriteArrayList<>();
+        diagrams.forEach(diagram -> when(diagram.render(any(PlantumlGenerator.class))).thenAnswer(invocation -> {
+            generators.add(invocation.getArgument(0));
+            return emptyList();
+        }));
+
+        new DiagramRenderer(config).render(diagrams.stream());
+
+        assertThat(generators, hasSize(diagrams.size()));
+        assertThat(generators, everyItem(sameInstance(generators.get(0))));
+    }
+
+    @Test
+    void testFailuresAreReportedInOrder() {
+        when(config.renderThreads()).thenReturn(4);
+        IllegalStateException slowFailure = new IllegalStateException("First diagram, but slow");
+        IllegalStateException fastFailure = new IllegalStateException("Second diagram, but fast");
+        Diagram slow = mock(Diagram.class);
+        Diagram fast = mock(Diagram.class);
+        doAnswer(invocation -> {
+            Thread.sleep(250);
+            throw slowFailure;
+        }).when(slow).render(any(PlantumlGenerator.class));
+        doThrow(fastFailure).when(fast).render(any(PlantumlGenerator.class));
+
+        IllegalStateException expected = assertThrows(IllegalStateException.class, () ->
+                new DiagramRenderer(config).render(Stream.of(slow, fast)));
+
+        assertThat(expected, sameInstance(slowFailure));
+        assertThat(expected.getSuppressed(), arrayContaining(fastFailure));
+    }
+}
@@ -21,27 +21,37 @@ import nl.talsmasoftware.umldoclet.logging.Message;
 import nl.talsmasoftware.umldoclet.logging.TestLogger;
 import nl.talsmasoftware.umldoclet.rendering.indent.Indentation;
 import nl.talsmasoftware.umldoclet.rendering.indent.IndentingPrintWriter;
+import nl.talsmasoftware.umldoclet.uml.plantuml.PlantumlGenerator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static nl.talsmasoftware.umldoclet.configuration.ImageConfig.Format.PNG;
 import static nl.talsmasoftware.umldoclet.configuration.ImageConfig.Format.SVG;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
@@ -143,6 +153,134 @@ public class DiagramTest {
         verify(config).customPlantumlDirectives();
     }
 
+    @Test
+    public void testConfigurationOfNodeMovedToAnotherDiagram() {
+        Configuration otherConfig = mock(Configuration.class);
+        when(otherConfig.images()).thenReturn(imageconfig);
+        Diagram diagram = new TestDiagram(config, new File("target/test-classes/foo/bar.puml"));
+        Diagram otherDiagram = new TestDiagram(otherConfig, new File("target/test-classes/foo/baz.puml"));
+        Namespace namespace = new Namespace(null, "a.b", null);
+        Type type = new Type(namespace, Type.Classification.CLASS, new TypeName("a.b", "C", "a.b.C"));
+        namespace.addChild(type);
+
+        assertThrows(IllegalStateException.class, type::getConfiguration);
+        diagram.addChild(namespace);
+        assertThat(type.getConfiguration(), is(sameInstance(config)));
+        otherDiagram.addChild(namespace);
+        assertThat(type.getConfiguration(), is(sameInstance(otherConfig)));
+    }
+
+    @Test
+    public void testRenderedDiagramIsKeptIfCacheCannotBeWritten() throws IOException {
+        // prepare
+        File tempdir = Files.createTempDirectory("umldoclet-diagram-test").toFile();
+        File cacheDir = new File(tempdir, "cache");
+        Files.write(cacheDir.toPath(), new byte[0]); // a file where the cache directory should be
+        when(config.destinationDirectory()).thenReturn(tempdir.getPath());
+        when(config.customPlantumlDirectives()).thenReturn(emptyList());
+        when(imageconfig.cacheDirectory()).thenReturn(Optional.of(cacheDir.getPath()));
+        Diagram testDiagram = new TestDiagram(config, new File(tempdir, "foo/bar.puml"));
+
+        // execute
+        List<File> rendered = testDiagram.render(mock(PlantumlGenerator.class));
+
+        // verify
+        assertThat(rendered, contains(new File(tempdir, "images/foo.bar.svg")));
+        assertThat(rendered.get(0).isFile(), is(true));
+        assertThat(logger.countMessages(Message.WARNING_CANNOT_STORE_IN_CACHE::equals), is(1));
+        verify(config, atLeast(1)).customPlantumlDirectives();
+        verify(config, atLeast(1)).indentation();
+        verify(config).renderPumlFile();
+        verify(imageconfig).cacheDirectory();
+    }
+
+    @Test
+    public void testFileLinksInSeparateImageDirectory() throws IOException {
+        // prepare
+        File tempdir = Files.createTempDirectory("umldoclet-diagram-test").toFile();
+        prepareRender(tempdir);
+        assertThat(new File(tempdir, "images").mkdirs(), is(true));
+        Diagram testDiagram = new TestDiagram(config, new File(tempdir, "foo/bar.puml"));
+        testDiagram.addChild(new FileLinkNode(testDiagram, "bar", new File(tempdir, "foo/Bar.html")));
+        testDiagram.addChild(new FileLinkNode(testDiagram, "qux", new File(tempdir, "baz/Qux.html")));
+        List<String> imageSources = new ArrayList<>();
+
+        // execute
+        testDiagram.render((source, format, out) -> imageSources.add(source));
+
+        // verify
+        String pumlSource = new String(Files.readAllBytes(new File(tempdir, "foo/bar.puml").toPath()), UTF_8);
+        assertThat(pumlSource, containsString("bar [[Bar.html]]"));
+        assertThat(pumlSource, containsString("qux [[" + path("..", "baz", "Qux.html") + "]]"));
+        assertThat(imageSources, hasSize(1));
+        assertThat(imageSources.get(0), containsString("bar [[" + path("..", "foo", "Bar.html") + "]]"));
+        assertThat(imageSources.get(0), containsString("qux [[" + path("..", "baz", "Qux.html") + "]]"));
+        verifyRender();
+    }
+
+    @Test
+    public void testFileLinksInDiagramContainingPlaceholderCharacter() throws IOException {
+        // prepare
+        File tempdir = Files.createTempDirectory("umldoclet-diagram-test").toFile();
+        prepareRender(tempdir);
+        assertThat(new File(tempdir, "images").mkdirs(), is(true));
+        Diagram testDiagram = new TestDiagram(config, new File(tempdir, "foo/bar.puml"));
+        testDiagram.addChild(new FileLinkNode(testDiagram, "bar\uFFFF", new File(tempdir, "foo/Bar.html")));
+        List<String> imageSources = new ArrayList<>();
+
+        // execute
+        testDiagram.render((source, format, out) -> imageSources.add(source));
+
+        // verify
+        String pumlSource = new String(Files.readAllBytes(new File(tempdir, "foo/bar.puml").toPath()), UTF_8);
+        assertThat(pumlSource, containsString("bar\uFFFF [[Bar.html]]"));
+        assertThat(imageSources, hasSize(1));
+        assertThat(imageSources.get(0), containsString("bar\uFFFF [[" + path("..", "foo", "Bar.html") + "]]"));
+        verifyRender();
+    }
+
+    @Test
+    public void testFileLinksInSameImageDirectory() throws IOException {
+        // prepare
+        File tempdir = Files.createTempDirectory("umldoclet-diagram-test").toFile();
+        prepareRender(tempdir);
+        when(imageconfig.directory()).thenReturn(Optional.empty());
+        Diagram testDiagram = new TestDiagram(config, new File(tempdir, "foo/bar.puml"));
+        testDiagram.addChild(new FileLinkNode(testDiagram, "bar", new File(tempdir, "foo/Bar.html")));
+        testDiagram.addChild(new FileLinkNode(testDiagram, "qux", new File(tempdir, "baz/Qux.html")));
+        List<String> imageSources = new ArrayList<>();
+
+        // execute
+        testDiagram.render((source, format, out) -> imageSources.add(source));
+
+        // verify
+        String pumlSource = new String(Files.readAllBytes(new File(tempdir, "foo/bar.puml").toPath()), UTF_8);
+        assertThat(pumlSource, containsString("bar [[Bar.html]]"));
+        assertThat(pumlSource, containsString("qux [[" + path("..", "baz", "Qux.html") + "]]"));
+        assertThat(imageSources, contains(pumlSource));
+        verifyRender();
+    }
+
+    private void prepareRender(File destinationDirectory) {
+        when(config.destinationDirectory()).thenReturn(destinationDirectory.getPath());
+        when(config.customPlantumlDirectives()).thenReturn(emptyList());
+        when(config.renderPumlFile()).thenReturn(true);
+        when(config.umlCharset()).thenReturn(UTF_8);
+        when(imageconfig.cacheDirectory()).thenReturn(Optional.empty());
+    }
+
+    private void verifyRender() {
+        verify(config, atLeast(1)).customPlantumlDirectives();
+        verify(config, atLeast(1)).indentation();
+        verify(config).renderPumlFile();
+        verify(config).umlCharset();
+        verify(imageconfig).cacheDirectory();
+    }
+
+    private static String path(String... parts) {
+        return String.join(File.separator, parts);
+    }
+
     static class TestDiagram extends Diagram {
         private final File plantumlFile;
 
@@ -156,4 +294,24 @@ public class DiagramTest {
             return plantumlFile;
         }
     }
+
+    /**
+     * Node rendering a line with a link to a file.
+     */
+    static class FileLinkNode extends UMLNode {
+        private final String text;
+        private final File target;
+
+        private FileLinkNode(UMLNode parent, String text, File target) {
+            super(parent);
+            this.text = text;
+            this.target = target;
+        }
+
+        @Override
+        public <IPW extends IndentingPrintWriter> IPW writeTo(IPW output) {
+            output.append(text).append(" [[").append(getDiagram().renderFileLink(target.toURI())).append("]]").newline();
+            return output;
+        }
+    }
 }
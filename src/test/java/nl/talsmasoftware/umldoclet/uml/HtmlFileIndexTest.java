@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.condition.OS.WINDOWS;
+
+class HtmlFileIndexTest {
+
+    File tempdir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempdir = Files.createTempDirectory("umldoclet-htmlfileindex-test").toFile();
+        File packageDir = new File(tempdir, "a/b");
+        Files.createDirectories(packageDir.toPath());
+        Files.createFile(new File(packageDir, "C.html").toPath());
+        Files.createFile(new File(packageDir, "C.svg").toPath());
+        Files.createDirectories(new File(packageDir, "D.html").toPath());
+    }
+
+    @Test
+    void htmlFilesAreIndexed() {
+        HtmlFileIndex index = HtmlFileIndex.of(tempdir.getPath());
+
+        assertThat(index.contains(new File(tempdir.getPath() + '/' + "a/b", "C.html")), is(true));
+        assertThat(index.contains(new File(tempdir.getPath() + '/' + "a/b", "E.html")), is(false));
+    }
+
+    @Test
+    void otherFilesAndDirectoriesAreNotIndexed() {
+        HtmlFileIndex index = HtmlFileIndex.of(tempdir.getPath());
+
+        assertThat(index.contains(new File(tempdir, "a/b/C.svg")), is(false));
+        assertThat(index.contains(new File(tempdir, "a/b/D.html")), is(false));
+    }
+
+    @Test
+    void missingDestinationDirectoryHasEmptyIndex() {
+        HtmlFileIndex index = HtmlFileIndex.of(new File(tempdir, "missing").getPath());
+
+        assertThat(index, is(notNullValue()));
+        assertThat(index.contains(new File(tempdir, "missing/a/b/C.html")), is(false));
+    }
+
+    @Test
+    void unknownDestinationDirectoryHasNoIndex() {
+        assertThat(HtmlFileIndex.of(null), is(nullValue()));
+        assertThat(HtmlFileIndex.of(""), is(nullValue()));
+    }
+
+    @Test
+    void filesAreLookedUpByNormalizedPath() {
+        HtmlFileIndex index = HtmlFileIndex.of(tempdir.getPath() + "/a/..");
+
+        assertThat(index.contains(new File(tempdir, "a/./b/C.html")), is(true));
+        assertThat(index.contains(new File(tempdir, "a/b/../b/C.html")), is(true));
+        assertThat(index.contains(new File(tempdir.getAbsoluteFile(), "a/b/C.html")), is(true));
+    }
+
+    @Test
+    @DisabledOnOs(WINDOWS)
+    void symbolicLinksToDirectoriesAreFollowed() throws IOException {
+        File linkedDir = Files.createTempDirectory("umldoclet-htmlfileindex-linked").toFile();
+        Files.createFile(new File(linkedDir, "E.html").toPath());
+        Files.createSymbolicLink(new File(tempdir, "a/e").toPath(), linkedDir.toPath());
+
+        HtmlFileIndex index = HtmlFileIndex.of(tempdir.getPath());
+
+        assertThat(index.contains(new File(tempdir, "a/e/E.html")), is(true));
+    }
+
+    @Test
+    void filesOutsideDestinationDirectoryAreCheckedOnFileSystem() throws IOException {
+        File otherDir = Files.createTempDirectory("umldoclet-htmlfileindex-other").toFile();
+        Files.createFile(new File(otherDir, "F.html").toPath());
+
+        HtmlFileIndex index = HtmlFileIndex.of(tempdir.getPath());
+
+        assertThat(index.contains(new File(otherDir, "F.html")), is(true));
+        assertThat(index.contains(new File(otherDir, "G.html")), is(false));
+    }
+}
@@ -57,7 +57,6 @@ public class NamespaceTest {
         assertThat(namespace, is(equalTo(new Namespace(null, "a.b.c", randomString()))));
         assertThat(namespace, is(equalTo(new Namespace(packageUml, "a.b.c", randomString()))));
         assertThat(namespace, is(not(equalTo(new Namespace(packageUml, "A.B.C", randomString())))));
-        verify(config, atLeastOnce()).plantumlServerUrl();
     }
 
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+class BuiltinPlantumlGeneratorTest {
+    static final String testUml = "@startuml\nBob -> Alice : hello\n@enduml";
+
+    PlantumlGenerator subject = new BuiltinPlantumlGenerator();
+
+    @Test
+    void multipleFormatsFromOneParse() throws IOException {
+        ByteArrayOutputStream singleSvg = new ByteArrayOutputStream();
+        subject.generatePlantumlDiagramFromSource(testUml, FileFormat.SVG, singleSvg);
+
+        Map<FileFormat, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+        outputs.put(FileFormat.PNG, new ByteArrayOutputStream());
+        outputs.put(FileFormat.SVG, new ByteArrayOutputStream());
+        subject.generatePlantumlDiagramsFromSource(testUml, outputs);
+
+        assertThat(new String(outputs.get(FileFormat.SVG).toByteArray(), UTF_8),
+                is(new String(singleSvg.toByteArray(), UTF_8)));
+        assertThat(new String(outputs.get(FileFormat.PNG).toByteArray(), 1, 3, UTF_8), is("PNG"));
+    }
+
+    @Test
+    void multipleFormatsWithoutValidStart() throws IOException {
+        Map<FileFormat, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+        outputs.put(FileFormat.SVG, new ByteArrayOutputStream());
+        subject.generatePlantumlDiagramsFromSource("Bob -> Alice : hello", outputs);
+
+        assertThat(new String(outputs.get(FileFormat.SVG).toByteArray(), UTF_8), containsString("<svg"));
+    }
+}
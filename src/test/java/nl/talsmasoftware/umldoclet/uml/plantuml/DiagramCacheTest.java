@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+import nl.talsmasoftware.umldoclet.configuration.ImageConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiagramCacheTest {
+    static final String testUml = "@startuml\nBob -> Alice : hello\n@enduml";
+
+    File tempdir;
+    DiagramCache subject;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempdir = Files.createTempDirectory("umldoclet-diagramcache-test").toFile();
+        subject = new DiagramCache(new File(tempdir, "cache"), "PlantUML test", emptyList());
+    }
+
+    @Test
+    void missingEntryIsNotRestored() throws IOException {
+        File target = new File(tempdir, "target.svg");
+
+        assertThat(subject.entry(testUml, FileFormat.SVG).restoreTo(target), is(false));
+        assertThat(target.exists(), is(false));
+    }
+
+    @Test
+    void storedEntryIsRestored() throws IOException {
+        File rendered = new File(tempdir, "rendered.svg");
+        Files.write(rendered.toPath(), "<svg/>".getBytes(UTF_8));
+        subject.entry(testUml, FileFormat.SVG).store(rendered);
+
+        File target = new File(tempdir, "target.svg");
+        assertThat(subject.entry(testUml, FileFormat.SVG).restoreTo(target), is(true));
+
+        assertThat(new String(Files.readAllBytes(target.toPath()), UTF_8), is("<svg/>"));
+    }
+
+    @Test
+    void restoreReplacesExistingTarget() throws IOException {
+        File rendered = new File(tempdir, "rendered.svg");
+        Files.write(rendered.toPath(), "<svg/>".getBytes(UTF_8));
+        subject.entry(testUml, FileFormat.SVG).store(rendered);
+        File target = new File(tempdir, "target.svg");
+        Files.write(target.toPath(), "outdated".getBytes(UTF_8));
+
+        assertThat(subject.entry(testUml, FileFormat.SVG).restoreTo(target), is(true));
+
+        assertThat(new String(Files.readAllBytes(target.toPath()), UTF_8), is("<svg/>"));
+    }
+
+    @Test
+    void entriesAreContentAddressed() {
+        assertThat(subject.entry(testUml, FileFormat.SVG),
+                hasToString(equalTo(subject.entry(testUml, FileFormat.SVG).toString())));
+        assertThat(subject.entry(testUml, FileFormat.SVG),
+                not(hasToString(equalTo(subject.entry(testUml + "\n", FileFormat.SVG).toString()))));
+        assertThat(subject.entry(testUml, FileFormat.SVG),
+                not(hasToString(equalTo(subject.entry(testUml, FileFormat.PNG).toString()))));
+        assertThat(subject.entry(testUml, FileFormat.SVG),
+                not(hasToString(equalTo(new DiagramCache(new File(tempdir, "cache"), "PlantUML other", emptyList())
+                        .entry(testUml, FileFormat.SVG).toString()))));
+        assertThat(subject.entry(testUml, FileFormat.SVG),
+                not(hasToString(equalTo(new DiagramCache(new File(tempdir, "cache"), "PlantUML test", singletonList("skinparam monochrome true"))
+                        .entry(testUml, FileFormat.SVG).toString()))));
+    }
+
+    @Test
+    void noCacheWithoutCacheDirectory() {
+        Configuration config = mock(Configuration.class);
+        ImageConfig images = mock(ImageConfig.class);
+        when(config.images()).thenReturn(images);
+        when(images.cacheDirectory()).thenReturn(Optional.empty());
+
+        assertThat(DiagramCache.forConfiguration(config).isPresent(), is(false));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import nl.talsmasoftware.umldoclet.configuration.Configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Simple benchmark comparing the per-diagram overhead of creating a generator for each diagram
+ * with sharing a single generator for all diagrams.
+ *
+ * <p>
+ * This is not a unit test; run the {@link #main(String[])} method manually, optionally passing the number of
+ * diagrams per round as argument.
+ */
+public class PlantumlGeneratorBenchmark {
+    private static final String DIAGRAM = "@startuml\n" +
+            "  set namespaceSeparator none\n" +
+            "  hide empty fields\n" +
+            "  hide empty methods\n" +
+            "\n" +
+            "  enum \"<size:14>Reference.Side\\n<size:10>nl.talsmasoftware.umldoclet.uml\" as Reference.Side {\n" +
+            "    {static} +FROM\n" +
+            "    {static} +TO\n" +
+            "  }\n" +
+            "@enduml\n";
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    public static void main(String[] args) throws IOException {
+        final int diagrams = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        final Configuration config = mock(Configuration.class);
+        when(config.plantumlServerUrl()).thenReturn(Optional.empty());
+
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < diagrams; i++) {
+                PlantumlGenerator.getPlantumlGenerator(config)
+                        .generatePlantumlDiagramFromSource(DIAGRAM, FileFormat.SVG, NULL_OUTPUT);
+            }
+            long perDiagram = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final PlantumlGenerator shared = PlantumlGenerator.getPlantumlGenerator(config);
+            for (int i = 0; i < diagrams; i++) {
+                shared.generatePlantumlDiagramFromSource(DIAGRAM, FileFormat.SVG, NULL_OUTPUT);
+            }
+            long sharedGenerator = System.nanoTime() - start;
+
+            System.out.printf("Round %d: generator per diagram: %.3f ms/diagram, shared generator: %.3f ms/diagram%n",
+                    round, perDiagram / 1e6 / diagrams, sharedGenerator / 1e6 / diagrams);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import net.sourceforge.plantuml.FileFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.condition.OS.WINDOWS;
+
+class ProcessPlantumlGeneratorTest {
+    static final String testUml = "@startuml\nBob -> Alice : hello\n@enduml";
+
+    private static ProcessPlantumlGenerator generator(int diagramsPerProcess) {
+        return new ProcessPlantumlGenerator(ProcessPlantumlGenerator.workerCommand(emptyList()), 1, diagramsPerProcess);
+    }
+
+    private static String generate(PlantumlGenerator generator) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generatePlantumlDiagramFromSource(testUml, FileFormat.SVG, out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    @Test
+    void diagramsAreRenderedInWorkerProcess() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new BuiltinPlantumlGenerator().generatePlantumlDiagramFromSource(testUml, FileFormat.SVG, expected);
+
+        try (ProcessPlantumlGenerator generator = generator(ProcessPlantumlGenerator.DEFAULT_DIAGRAMS_PER_PROCESS)) {
+            assertThat(generate(generator), is(new String(expected.toByteArray(), UTF_8)));
+        }
+    }
+
+    @Test
+    void multipleFormatsAreRenderedInOneRequest() throws IOException {
+        Map<FileFormat, ByteArrayOutputStream> outputs = new LinkedHashMap<>();
+        outputs.put(FileFormat.SVG, new ByteArrayOutputStream());
+        outputs.put(FileFormat.PNG, new ByteArrayOutputStream());
+
+        try (ProcessPlantumlGenerator generator = generator(ProcessPlantumlGenerator.DEFAULT_DIAGRAMS_PER_PROCESS)) {
+            generator.generatePlantumlDiagramsFromSource(testUml, outputs);
+        }
+
+        assertThat(new String(outputs.get(FileFormat.SVG).toByteArray(), UTF_8), containsString("<svg"));
+        assertThat(new String(outputs.get(FileFormat.PNG).toByteArray(), 1, 3, UTF_8), is("PNG"));
+    }
+
+    @Test
+    void workerProcessesAreReused() throws IOException {
+        try (ProcessPlantumlGenerator generator = generator(ProcessPlantumlGenerator.DEFAULT_DIAGRAMS_PER_PROCESS)) {
+            for (int i = 0; i < 5; i++) {
+                assertThat(generate(generator), containsString("<svg"));
+            }
+            assertThat(generator.startedProcesses(), is(1));
+        }
+    }
+
+    @Test
+    void workerProcessesAreRecycled() throws IOException {
+        try (ProcessPlantumlGenerator generator = generator(2)) {
+            for (int i = 0; i < 5; i++) {
+                assertThat(generate(generator), containsString("<svg"));
+            }
+            assertThat(generator.startedProcesses(), is(3));
+        }
+    }
+
+    @Test
+    @DisabledOnOs(WINDOWS)
+    void failingProcessesAreReported() {
+        try (ProcessPlantumlGenerator generator = new ProcessPlantumlGenerator(singletonList("false"), 1, 2)) {
+            IOException expected = assertThrows(IOException.class, () -> generate(generator));
+            assertThat(expected.getMessage(), containsString("PlantUML process failed"));
+        }
+    }
+
+    @Test
+    @DisabledOnOs(WINDOWS)
+    void unresponsiveProcessesAreDestroyed() {
+        try (ProcessPlantumlGenerator generator = new ProcessPlantumlGenerator(
+                asList("sleep", "60"), 1, 2, Duration.ofMillis(200))) {
+            IOException expected = assertThrows(IOException.class, () -> generate(generator));
+            assertThat(expected.getMessage(), containsString("did not respond within 200 ms"));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.uml.plantuml;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.sourceforge.plantuml.FileFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link RemotePlantumlGenerator} against an in-process stub server,
+ * as opposed to the actual PlantUML server container used by {@link RemotePlantumlGeneratorTest}.
+ */
+class RemotePlantumlGeneratorStubServerTest {
+    static final String testUml = "@startuml\nBob -> Alice : hello\n@enduml";
+    static final String svg = "<svg/>";
+    static final int NO_RESPONSE = -1;
+
+    HttpServer server;
+    Queue<Integer> statuses;
+    List<String> requests;
+    List<String> requestBodies;
+    CountDownLatch stopped;
+    ExecutorService handlers;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        statuses = new ConcurrentLinkedQueue<>();
+        requests = new CopyOnWriteArrayList<>();
+        requestBodies = new CopyOnWriteArrayList<>();
+        stopped = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers); // Requests are handled while another request is not responded to.
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        stopped.countDown();
+        server.stop(1); // Returns as soon as the released exchanges are closed.
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+        try (InputStream in = exchange.getRequestBody()) {
+            requestBodies.add(new String(in.readAllBytes(), UTF_8));
+        }
+        Integer status = statuses.poll();
+        if (status != null && status == NO_RESPONSE) {
+            try {
+                stopped.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+        byte[] response = (status == null ? svg : "error").getBytes(UTF_8);
+        exchange.sendResponseHeaders(status == null ? 200 : status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private RemotePlantumlGenerator generator(int maxAttempts, int maxGetUrlLength) {
+        return generator(Duration.ofSeconds(5), maxAttempts, maxGetUrlLength);
+    }
+
+    private RemotePlantumlGenerator generator(Duration readTimeout, int maxAttempts, int maxGetUrlLength) {
+        return new RemotePlantumlGenerator("http://localhost:" + server.getAddress().getPort() + "/",
+                Duration.ofSeconds(5), readTimeout, maxAttempts, Duration.ofMillis(1), maxGetUrlLength);
+    }
+
+    private String generate(RemotePlantumlGenerator generator, String uml) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generatePlantumlDiagramFromSource(uml, FileFormat.SVG, out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    @Test
+    void smallDiagramIsRequestedWithGet() {
+        assertThat(generate(generator(3, 4096), testUml), is(svg));
+
+        assertThat(requests, hasSize(1));
+        assertThat(requests.get(0), startsWith("GET /svg/"));
+    }
+
+    @Test
+    void largeDiagramIsPosted() {
+        assertThat(generate(generator(3, 10), testUml), is(svg));
+
+        assertThat(requests, contains("POST /svg"));
+        assertThat(requestBodies, contains(testUml));
+    }
+
+    @Test
+    void serverErrorsAreRetried() {
+        statuses.add(503);
+        statuses.add(500);
+
+        assertThat(generate(generator(3, 4096), testUml), is(svg));
+
+        assertThat(requests, hasSize(3));
+    }
+
+    @Test
+    void retriesAreBounded() {
+        statuses.add(503);
+        statuses.add(503);
+        statuses.add(503);
+
+        assertThrows(RuntimeException.class, () -> generate(generator(2, 4096), testUml));
+
+        assertThat(requests, hasSize(2));
+    }
+
+    @Test
+    void rejectedDiagramsAreNotRetried() {
+        statuses.add(400);
+
+        assertThrows(RuntimeException.class, () -> generate(generator(3, 4096), testUml));
+
+        assertThat(requests, hasSize(1));
+    }
+
+    @Test
+    void readTimeoutsAreNotRetried() {
+        statuses.add(NO_RESPONSE);
+
+        RuntimeException expected = assertThrows(RuntimeException.class,
+                () -> generate(generator(Duration.ofMillis(200), 3, 4096), testUml));
+
+        assertThat(expected.getMessage(), containsString("No response within the read timeout"));
+        assertThat(requests, hasSize(1));
+    }
+
+}
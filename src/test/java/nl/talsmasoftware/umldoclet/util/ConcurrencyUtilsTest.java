@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016-2024 Talsma ICT
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.talsmasoftware.umldoclet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ConcurrencyUtilsTest {
+
+    @Test
+    public void testUnsupportedConstructor() throws NoSuchMethodException {
+        Constructor<ConcurrencyUtils> constructor = ConcurrencyUtils.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        InvocationTargetException expected = assertThrows(InvocationTargetException.class, constructor::newInstance);
+        assertThat(expected.getCause(), is(instanceOf(UnsupportedOperationException.class)));
+    }
+
+    @Test
+    public void testSingleThreadUsesCallingThread() {
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        ConcurrencyUtils.forEach(IntStream.range(0, 10).boxed(), 1, "test",
+                i -> threadNames.add(Thread.currentThread().getName()));
+
+        assertThat(threadNames, everyItem(is(Thread.currentThread().getName())));
+    }
+
+    @Test
+    public void testMultipleThreadsProcessAllItems() {
+        final AtomicInteger sum = new AtomicInteger(0);
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        ConcurrencyUtils.forEach(IntStream.rangeClosed(1, 100).boxed(), 4, "test", i -> {
+            sum.addAndGet(i);
+            threadNames.add(Thread.currentThread().getName());
+        });
+
+        assertThat(sum.get(), is(5050));
+        assertThat(threadNames, everyItem(startsWith("test-")));
+    }
+
+    @Test
+    public void testFirstFailureIsThrown() {
+        IllegalStateException expected = assertThrows(IllegalStateException.class, () ->
+                ConcurrencyUtils.forEach(IntStream.range(0, 10).boxed(), 4, "test", i -> {
+                    if (i == 3) throw new IllegalStateException("Failure " + i);
+                }));
+
+        assertThat(expected.getMessage(), containsString("Failure 3"));
+    }
+}